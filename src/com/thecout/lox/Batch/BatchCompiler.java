@@ -0,0 +1,87 @@
+package com.thecout.lox.Batch;
+
+import com.thecout.lox.Parser.Parser;
+import com.thecout.lox.Parser.ParserError;
+import com.thecout.lox.Parser.ParserMode;
+import com.thecout.lox.Parser.Stmts.Stmt;
+import com.thecout.lox.Scanner;
+import com.thecout.lox.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/*
+ * Scans and parses many files concurrently. Every file is compiled by one task
+ * from its memory mapped source into a TokenBuffer and then into statements;
+ * the tasks share no state, so the batch scales with the parallelism of the pool.
+ */
+public class BatchCompiler {
+    private static final String EXTENSION = ".lox";
+
+    private final ForkJoinPool pool;
+    private final ParserMode mode;
+
+    public BatchCompiler() {
+        this(ForkJoinPool.commonPool(), ParserMode.LL1);
+    }
+
+    public BatchCompiler(ForkJoinPool pool, ParserMode mode) {
+        this.pool = pool;
+        this.mode = mode;
+    }
+
+    // Compiles the given files and every .lox file below the given directories.
+    public BatchResult compile(Collection<Path> paths) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = collect(paths);
+        FileResult[] results = new FileResult[files.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(files.size());
+        for (int i = 0; i < results.length; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> results[index] = compile(files.get(index))));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        return new BatchResult(List.of(results), System.nanoTime() - start);
+    }
+
+    public FileResult compile(Path file) {
+        try {
+            long start = System.nanoTime();
+            Scanner scanner = Scanner.ofFile(file);
+            TokenBuffer tokens = scanner.scanToBuffer();
+            long scanned = System.nanoTime();
+            Parser parser = new Parser(tokens.stream(), mode);
+            List<Stmt> statements = parser.parse();
+            List<ParserError> errors = ParserError.merge(scanner.getErrors(), parser.getErrors());
+            return new FileResult(file, statements, errors, scanned - start, System.nanoTime() - scanned);
+        } catch (IOException e) {
+            return new FileResult(file, e);
+        }
+    }
+
+    private static List<Path> collect(Collection<Path> paths) throws IOException {
+        TreeSet<Path> files = new TreeSet<>();
+        for (Path path : paths) {
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                walk.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(EXTENSION))
+                        .forEach(files::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return new ArrayList<>(files);
+    }
+}
@@ -0,0 +1,37 @@
+package com.thecout.lox.Batch;
+
+import java.util.List;
+
+// Results of all files in path order together with the time the batch took.
+public class BatchResult {
+    public final List<FileResult> files;
+    public final long wallNanos;
+
+    BatchResult(List<FileResult> files, long wallNanos) {
+        this.files = files;
+        this.wallNanos = wallNanos;
+    }
+
+    // Time spent scanning summed over all files, larger than wallNanos when files were compiled concurrently
+    public long scanNanos() {
+        return files.stream().mapToLong(file -> file.scanNanos).sum();
+    }
+
+    public long parseNanos() {
+        return files.stream().mapToLong(file -> file.parseNanos).sum();
+    }
+
+    public int errorCount() {
+        return files.stream().mapToInt(file -> file.errors.size() + (file.failure != null ? 1 : 0)).sum();
+    }
+
+    public boolean succeeded() {
+        return files.stream().allMatch(FileResult::succeeded);
+    }
+
+    @Override
+    public String toString() {
+        return "%d files, %d errors, wall %.1f ms, scan %.1f ms, parse %.1f ms".formatted(
+                files.size(), errorCount(), wallNanos / 1e6, scanNanos() / 1e6, parseNanos() / 1e6);
+    }
+}
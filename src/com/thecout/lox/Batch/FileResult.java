@@ -0,0 +1,40 @@
+package com.thecout.lox.Batch;
+
+import com.thecout.lox.Parser.ParserError;
+import com.thecout.lox.Parser.Stmts.Stmt;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Front end output for one file. failure is set and statements empty when the file could not be read.
+public class FileResult {
+    public final Path file;
+    public final List<Stmt> statements;
+    public final List<ParserError> errors;
+    public final IOException failure;
+    public final long scanNanos;
+    public final long parseNanos;
+
+    FileResult(Path file, List<Stmt> statements, List<ParserError> errors, long scanNanos, long parseNanos) {
+        this.file = file;
+        this.statements = statements;
+        this.errors = errors;
+        this.failure = null;
+        this.scanNanos = scanNanos;
+        this.parseNanos = parseNanos;
+    }
+
+    FileResult(Path file, IOException failure) {
+        this.file = file;
+        this.statements = List.of();
+        this.errors = List.of();
+        this.failure = failure;
+        this.scanNanos = 0;
+        this.parseNanos = 0;
+    }
+
+    public boolean succeeded() {
+        return failure == null && errors.isEmpty();
+    }
+}
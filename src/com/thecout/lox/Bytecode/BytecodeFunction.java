@@ -0,0 +1,32 @@
+package com.thecout.lox.Bytecode;
+
+/*
+ * A compiled function declaration, or the top level code as "script". The
+ * frame of a call has a slot per name, the parameters come first.
+ */
+public final class BytecodeFunction {
+    public final String name;
+    public final int arity;
+    // null for the script, which runs without a frame
+    final String[] names;
+    final Chunk chunk;
+    // Most values the function keeps on the stack at once
+    final int maxStack;
+
+    BytecodeFunction(String name, int arity, String[] names, Chunk chunk, int maxStack) {
+        this.name = name;
+        this.arity = arity;
+        this.names = names;
+        this.chunk = chunk;
+        this.maxStack = maxStack;
+    }
+
+    public Chunk chunk() {
+        return chunk;
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + name + ">";
+    }
+}
@@ -0,0 +1,10 @@
+package com.thecout.lox.Bytecode;
+
+// Activation of a function in the VM, saved while it calls another one
+final class CallFrame {
+    BytecodeFunction function;
+    int ip;
+    // Stack index of the callee, the return value replaces it
+    int base;
+    Object[] scope;
+}
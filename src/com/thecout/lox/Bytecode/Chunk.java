@@ -0,0 +1,106 @@
+package com.thecout.lox.Bytecode;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.InterpreterUtils.RuntimeError;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/*
+ * Code of one function: the instructions, the source line of every byte and the
+ * constant pool they index. A name is added once per lexeme and a literal once
+ * per value, however often the function uses them; the line of each use is in
+ * lines. Functions and slot name arrays are shared by identity.
+ */
+public final class Chunk {
+    // Highest constant index, NO_NAME is not one
+    private static final int MAX_CONSTANT = OpCode.NO_NAME - 1;
+
+    byte[] code = new byte[64];
+    int[] lines = new int[64];
+    int size;
+    // Line of the instructions written next
+    int line;
+    Object[] constants = new Object[16];
+    int constantCount;
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final Map<Object, Integer> literalIds = new HashMap<>();
+    private final Map<Object, Integer> constantIds = new IdentityHashMap<>();
+
+    void write(int value) {
+        if (size == code.length) {
+            code = Arrays.copyOf(code, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        lines[size] = line;
+        code[size++] = (byte) value;
+    }
+
+    void writeShort(int value) {
+        if (value < 0 || value > 0xffff) throw new RuntimeError(null, "Operand " + value + " does not fit in 16 bits.");
+        write(value >> 8);
+        write(value);
+    }
+
+    void patchShort(int offset, int value) {
+        if (value < 0 || value > 0xffff) throw new RuntimeError(null, "Too much code to jump over.");
+        code[offset] = (byte) (value >> 8);
+        code[offset + 1] = (byte) value;
+    }
+
+    int readShort(int offset) {
+        return ((code[offset] & 0xff) << 8) | (code[offset + 1] & 0xff);
+    }
+
+    // The first token of a lexeme stands for all of them, the VM takes the line of an error from lines
+    int addName(Token name) {
+        Integer id = nameIds.get(name.lexeme);
+        if (id != null) return id;
+        id = append(name);
+        nameIds.put(name.lexeme, id);
+        return id;
+    }
+
+    int addConstant(Object value) {
+        if (value == null) throw new IllegalArgumentException("null is pushed with NIL.");
+        Map<Object, Integer> ids = value instanceof Double || value instanceof String || value instanceof Boolean
+                ? literalIds : constantIds;
+        Integer id = ids.get(value);
+        if (id != null) return id;
+        id = append(value);
+        ids.put(value, id);
+        return id;
+    }
+
+    private int append(Object value) {
+        if (constantCount > MAX_CONSTANT) throw new RuntimeError(null, "Too many constants in one function.");
+        if (constantCount == constants.length) constants = Arrays.copyOf(constants, constantCount * 2);
+        constants[constantCount] = value;
+        return constantCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // One instruction per line with its offset and operands
+    public String disassemble() {
+        StringBuilder result = new StringBuilder();
+        int offset = 0;
+        while (offset < size) {
+            int op = code[offset] & 0xff;
+            result.append("%04d %s".formatted(offset, OpCode.NAMES[op]));
+            offset++;
+            for (int i = 0; i < OpCode.OPERANDS[op]; i++, offset += 2) {
+                result.append(' ').append(readShort(offset));
+            }
+            if (op == OpCode.CONSTANT || op == OpCode.CLOSURE) {
+                result.append(" (").append(constants[readShort(offset - 2)]).append(')');
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+}
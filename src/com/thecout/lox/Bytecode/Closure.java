@@ -0,0 +1,17 @@
+package com.thecout.lox.Bytecode;
+
+// Function value of the VM: the code and the frame it was declared in
+final class Closure {
+    final BytecodeFunction function;
+    final Object[] scope;
+
+    Closure(BytecodeFunction function, Object[] scope) {
+        this.function = function;
+        this.scope = scope;
+    }
+
+    @Override
+    public String toString() {
+        return function.toString();
+    }
+}
@@ -0,0 +1,279 @@
+package com.thecout.lox.Bytecode;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.Resolver;
+
+import java.util.List;
+
+import static com.thecout.lox.Bytecode.OpCode.*;
+
+/*
+ * Translates a resolved tree into bytecode for the VM, one BytecodeFunction
+ * per function declaration. Variables use the depth and slot the Resolver
+ * annotated, blocks and calls get a frame exactly where the Interpreter
+ * creates one, so both backends see the same bindings. Arguments are
+ * evaluated before the call.
+ */
+public class Compiler implements ExprVisitor<Void>, StmtVisitor<Void> {
+    private final Chunk chunk = new Chunk();
+    private int stackDepth;
+    private int maxStack;
+
+    public BytecodeFunction compile(List<Stmt> statements) {
+        statements(statements);
+        emit(NIL, 1);
+        emit(RETURN, -1);
+        return new BytecodeFunction("script", 0, null, chunk, maxStack);
+    }
+
+    private BytecodeFunction function(Function stmt) {
+        statements(stmt.body);
+        emit(NIL, 1);
+        emit(RETURN, -1);
+        return new BytecodeFunction(stmt.name.lexeme, stmt.parameters.size(), stmt.names, chunk, maxStack);
+    }
+
+    private void statements(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            if (statement != null) statement.accept(this);
+        }
+    }
+
+    private void expression(Expr expr) {
+        if (expr == null) {
+            emit(NIL, 1);
+        } else {
+            expr.accept(this);
+        }
+    }
+
+    private void emit(int op) {
+        chunk.write(op);
+    }
+
+    // Instruction that changes the number of values on the stack by effect
+    private void emit(int op, int effect) {
+        chunk.write(op);
+        stackDepth += effect;
+        maxStack = Math.max(maxStack, stackDepth);
+    }
+
+    private void emit(int op, int effect, int operand) {
+        emit(op, effect);
+        chunk.writeShort(operand);
+    }
+
+    private int emitJump(int op, int effect) {
+        emit(op, effect);
+        chunk.writeShort(0);
+        return chunk.size - 2;
+    }
+
+    private void patchJump(int operand) {
+        chunk.patchShort(operand, chunk.size - operand - 2);
+    }
+
+    private void emitLoop(int start) {
+        emit(LOOP);
+        chunk.writeShort(chunk.size - start + 2);
+    }
+
+    private int name(Token name) {
+        return chunk.addName(name);
+    }
+
+    // Instructions written from now on are reported at the line of the token
+    private void line(Token token) {
+        if (token != null) chunk.line = token.line;
+    }
+
+    @Override
+    public Void visitAssignExpr(Assign expr) {
+        expression(expr.value);
+        line(expr.name);
+        if (expr.depth >= 0) {
+            emit(SET_LOCAL, 0, expr.depth);
+            chunk.writeShort(expr.slot);
+            chunk.writeShort(name(expr.name));
+        } else {
+            emit(expr.depth == Resolver.GLOBAL ? SET_GLOBAL : SET_NAME, 0, name(expr.name));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Binary expr) {
+        expression(expr.left);
+        expression(expr.right);
+        line(expr.operator);
+        switch (expr.operator.type) {
+            case STAR: emit(MULTIPLY, -1); break;
+            case SLASH: emit(DIVIDE, -1); break;
+            case PLUS: emit(ADD, -1); break;
+            case MINUS: emit(SUBTRACT, -1); break;
+            default: throw new IllegalStateException("Unexpected value: " + expr.operator.type);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Call expr) {
+        expression(expr.callee);
+        for (Expr argument : expr.arguments) {
+            expression(argument);
+        }
+        Token callee = expr.callee instanceof Variable ? ((Variable) expr.callee).name : null;
+        line(callee);
+        emit(CALL, -expr.arguments.size(), expr.arguments.size());
+        chunk.writeShort(callee != null ? name(callee) : NO_NAME);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Grouping expr) {
+        expression(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Literal expr) {
+        if (expr.value == null) {
+            emit(NIL, 1);
+        } else {
+            emit(CONSTANT, 1, chunk.addConstant(expr.value));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Logical expr) {
+        expression(expr.left);
+        expression(expr.right);
+        line(expr.operator);
+        switch (expr.operator.type) {
+            case EQUAL_EQUAL: emit(EQUAL, -1); break;
+            case LESS_EQUAL: emit(OpCode.LESS_EQUAL, -1); break;
+            case GREATER_EQUAL: emit(OpCode.GREATER_EQUAL, -1); break;
+            case LESS: emit(OpCode.LESS, -1); break;
+            case GREATER: emit(OpCode.GREATER, -1); break;
+            default: throw new IllegalStateException("Unexpected value: " + expr.operator.type);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Unary expr) {
+        expression(expr.right);
+        line(expr.operator);
+        switch (expr.operator.type) {
+            case MINUS: emit(NEGATE); break;
+            case BANG: emit(NOT); break;
+            default: throw new IllegalStateException("Unexpected value: " + expr.operator.type);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Variable expr) {
+        line(expr.name);
+        if (expr.depth >= 0) {
+            emit(GET_LOCAL, 1, expr.depth);
+            chunk.writeShort(expr.slot);
+            chunk.writeShort(name(expr.name));
+        } else {
+            emit(expr.depth == Resolver.GLOBAL ? GET_GLOBAL : GET_NAME, 1, name(expr.name));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Block stmt) {
+        if (stmt.names == null) {
+            statements(stmt.statements);
+            return null;
+        }
+        emit(ENTER_SCOPE, 0, chunk.addConstant(stmt.names));
+        statements(stmt.statements);
+        emit(EXIT_SCOPE);
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Expression stmt) {
+        if (stmt.expression == null) return null;
+        expression(stmt.expression);
+        emit(POP, -1);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Function stmt) {
+        line(stmt.name);
+        emit(CLOSURE, 1, chunk.addConstant(new Compiler().function(stmt)));
+        define(stmt.slot, stmt.name);
+        return null;
+    }
+
+    private void define(int slot, Token name) {
+        if (slot >= 0) {
+            emit(DEFINE_LOCAL, -1, slot);
+        } else {
+            emit(DEFINE_GLOBAL, -1, name(name));
+        }
+    }
+
+    @Override
+    public Void visitIfStmt(If stmt) {
+        expression(stmt.condition);
+        int otherwise = emitJump(JUMP_IF_FALSE, -1);
+        stmt.thenBranch.accept(this);
+        if (stmt.elseBranch == null) {
+            patchJump(otherwise);
+            return null;
+        }
+        int end = emitJump(JUMP, 0);
+        patchJump(otherwise);
+        stmt.elseBranch.accept(this);
+        patchJump(end);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Print stmt) {
+        expression(stmt.expression);
+        emit(PRINT, -1);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Return stmt) {
+        expression(stmt.value);
+        emit(RETURN, -1);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Var stmt) {
+        expression(stmt.initializer);
+        line(stmt.name);
+        define(stmt.slot, stmt.name);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(While stmt) {
+        int start = chunk.size;
+        expression(stmt.condition);
+        int exit = emitJump(JUMP_IF_FALSE, -1);
+        stmt.body.accept(this);
+        if (stmt.increment != null) {
+            expression(stmt.increment);
+            emit(POP, -1);
+        }
+        emitLoop(start);
+        patchJump(exit);
+        return null;
+    }
+}
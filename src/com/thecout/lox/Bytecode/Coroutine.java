@@ -0,0 +1,62 @@
+package com.thecout.lox.Bytecode;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Frames;
+
+import java.util.Arrays;
+
+/*
+ * Everything the VM needs to go on with a suspended computation: its operand
+ * stack and its call frames, both on the heap. A Lox coroutine wraps a function
+ * without parameters, calling it runs the function until it calls yield or
+ * returns. A script the Scheduler runs is one too, then yield suspends the script.
+ */
+public final class Coroutine {
+    Object[] stack;
+    int sp;
+    CallFrame[] frames = new CallFrame[8];
+    int fp;
+    // The coroutine that resumed this one and gets the next yielded value, null unless it runs
+    Coroutine caller;
+    // Whether yield outside of a Lox coroutine suspends this one instead of failing
+    final boolean suspends;
+    boolean done;
+
+    Coroutine(BytecodeFunction function, Object[] scope, boolean suspends) {
+        this.suspends = suspends;
+        // slot 0 stands for the callee, the result of the function replaces it
+        stack = new Object[function.maxStack + 1];
+        sp = 1;
+        CallFrame frame = frame(fp++);
+        frame.function = function;
+        frame.base = 0;
+        frame.scope = function.names == null ? scope : Frames.create(scope, function.names);
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    // The stack with room for at least size values
+    Object[] grow(int size) {
+        if (size > stack.length) stack = Arrays.copyOf(stack, Math.max(size, stack.length * 2));
+        return stack;
+    }
+
+    CallFrame frame(int index) {
+        if (index == frames.length) frames = Arrays.copyOf(frames, index * 2);
+        if (frames[index] == null) frames[index] = new CallFrame();
+        return frames[index];
+    }
+
+    // Drops the values and frames of a coroutine that is done
+    void finish() {
+        done = true;
+        stack = null;
+        frames = null;
+    }
+
+    @Override
+    public String toString() {
+        return "<coroutine>";
+    }
+}
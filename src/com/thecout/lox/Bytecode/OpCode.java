@@ -0,0 +1,67 @@
+package com.thecout.lox.Bytecode;
+
+/*
+ * Instructions of the VM. Every instruction is one byte, followed by its
+ * operands, each an unsigned 16 bit number in big endian order.
+ */
+public final class OpCode {
+    public static final int CONSTANT = 0;      // index: push constant
+    public static final int NIL = 1;           // push null
+    public static final int POP = 2;
+
+    public static final int GET_LOCAL = 3;     // depth, slot, name: push variable of a frame
+    public static final int SET_LOCAL = 4;     // depth, slot, name: assign, the value stays on the stack
+    public static final int DEFINE_LOCAL = 5;  // slot: pop into the current frame
+    public static final int GET_GLOBAL = 6;    // name
+    public static final int SET_GLOBAL = 7;    // name
+    public static final int DEFINE_GLOBAL = 8; // name
+    public static final int GET_NAME = 9;      // name: lookup by name through the frames, then the globals
+    public static final int SET_NAME = 10;     // name
+
+    public static final int ADD = 11;
+    public static final int SUBTRACT = 12;
+    public static final int MULTIPLY = 13;
+    public static final int DIVIDE = 14;
+    public static final int NEGATE = 15;
+    public static final int NOT = 16;
+    public static final int EQUAL = 17;
+    public static final int LESS = 18;
+    public static final int LESS_EQUAL = 19;
+    public static final int GREATER = 20;
+    public static final int GREATER_EQUAL = 21;
+
+    public static final int JUMP = 22;          // offset forward
+    public static final int JUMP_IF_FALSE = 23; // offset forward, pops the condition
+    public static final int LOOP = 24;          // offset backward
+
+    public static final int CALL = 25;          // argument count, name of the callee for errors or NO_NAME
+    public static final int CLOSURE = 26;       // index of a BytecodeFunction constant
+    public static final int RETURN = 27;
+    public static final int ENTER_SCOPE = 28;   // index of the slot names constant
+    public static final int EXIT_SCOPE = 29;
+    public static final int PRINT = 30;
+
+    public static final int NO_NAME = 0xffff;
+
+    static final String[] NAMES = {
+            "CONSTANT", "NIL", "POP",
+            "GET_LOCAL", "SET_LOCAL", "DEFINE_LOCAL", "GET_GLOBAL", "SET_GLOBAL", "DEFINE_GLOBAL", "GET_NAME", "SET_NAME",
+            "ADD", "SUBTRACT", "MULTIPLY", "DIVIDE", "NEGATE", "NOT",
+            "EQUAL", "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL",
+            "JUMP", "JUMP_IF_FALSE", "LOOP",
+            "CALL", "CLOSURE", "RETURN", "ENTER_SCOPE", "EXIT_SCOPE", "PRINT"
+    };
+
+    // Number of operands following each instruction
+    static final int[] OPERANDS = {
+            1, 0, 0,
+            3, 3, 1, 1, 1, 1, 1, 1,
+            0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0,
+            1, 1, 1,
+            2, 1, 0, 1, 0, 0
+    };
+
+    private OpCode() {
+    }
+}
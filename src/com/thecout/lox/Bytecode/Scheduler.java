@@ -0,0 +1,53 @@
+package com.thecout.lox.Bytecode;
+
+import com.thecout.lox.Parser.Stmts.Stmt;
+import com.thecout.lox.Traversal.ExecutionMode;
+import com.thecout.lox.Traversal.Interpreter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/*
+ * Runs many scripts in turns on the calling thread, each with its own
+ * Interpreter and globals. A script runs until it calls yield outside of a Lox
+ * coroutine, then the next one goes on. A suspended script is only its
+ * Coroutine on the heap, so thousands of them cost no threads.
+ */
+public class Scheduler {
+    private final Deque<Script> ready = new ArrayDeque<>();
+
+    public void spawn(List<Stmt> statements) {
+        Interpreter interpreter = new Interpreter(ExecutionMode.BYTECODE);
+        ready.add(new Script(new VM(interpreter), new Coroutine(interpreter.compile(statements), null, true)));
+    }
+
+    // Scripts that are not done yet
+    public int size() {
+        return ready.size();
+    }
+
+    // Resumes the scripts one after another until all are done, a script that fails is reported and dropped
+    public void run() {
+        while (!ready.isEmpty()) {
+            Script script = ready.poll();
+            try {
+                script.vm.resume(script.coroutine);
+            } catch (RuntimeException error) {
+                // also the ClassCastException of an operand of the wrong type, which is no RuntimeError
+                error.printStackTrace();
+            }
+            if (!script.coroutine.isDone()) ready.add(script);
+        }
+    }
+
+    private static class Script {
+        final VM vm;
+        final Coroutine coroutine;
+
+        Script(VM vm, Coroutine coroutine) {
+            this.vm = vm;
+            this.coroutine = coroutine;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.thecout.lox.Bytecode;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.Interpreter;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+import com.thecout.lox.Traversal.InterpreterUtils.Frames;
+import com.thecout.lox.Traversal.InterpreterUtils.LoxCallable;
+import com.thecout.lox.Traversal.InterpreterUtils.RuntimeError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static com.thecout.lox.Bytecode.OpCode.*;
+
+/*
+ * Runs the code of the Compiler in a single loop that switches over the next
+ * instruction. Operands live on an Object[] stack, variables in the same frames
+ * the Interpreter uses, see Frames. A call of a Lox function pushes a CallFrame
+ * instead of recursing, natives like clock take the arguments from the stack.
+ * Stack and frames belong to a Coroutine, so the loop suspends one by saving
+ * its position and goes on with another; the Java stack stays the same.
+ */
+public final class VM {
+    // Suspends the running coroutine and passes its argument to the one that resumed it
+    private static final LoxCallable YIELD = new Native() {
+        @Override
+        public Object call1(Interpreter interpreter, Object value) {
+            throw new IllegalStateException("yield is run by the VM");
+        }
+    };
+
+    private final Interpreter interpreter;
+    private final Environment globals;
+
+    public VM(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.globals = interpreter.globals;
+    }
+
+    // Natives for coroutines, which only the VM can suspend
+    public static void defineNatives(Environment globals) {
+        globals.define("coroutine", new Native() {
+            @Override
+            public Object call1(Interpreter interpreter, Object function) {
+                if (!(function instanceof Closure) || ((Closure) function).function.arity != 0) {
+                    throw new RuntimeError(null, "Can only make a coroutine of a function without parameters.");
+                }
+                Closure closure = (Closure) function;
+                return new Coroutine(closure.function, closure.scope, false);
+            }
+        });
+        globals.define("yield", YIELD);
+    }
+
+    public void run(BytecodeFunction script) {
+        resume(new Coroutine(script, null, false));
+    }
+
+    // Runs the coroutine until it suspends or is done
+    public void resume(Coroutine coroutine) {
+        if (coroutine.done || coroutine.caller != null) {
+            throw new IllegalStateException("Can only resume a suspended coroutine");
+        }
+        try {
+            execute(coroutine);
+        } catch (RuntimeException error) {
+            coroutine.finish();
+            throw error;
+        }
+    }
+
+    private void execute(Coroutine current) {
+        resume:
+        while (true) {
+            Object[] stack = current.stack;
+            int sp = current.sp;
+            int fp = current.fp;
+            CallFrame frame = current.frames[fp - 1];
+            byte[] code = frame.function.chunk.code;
+            Object[] constants = frame.function.chunk.constants;
+            Object[] scope = frame.scope;
+            int ip = frame.ip;
+
+            try {
+                while (true) {
+                    switch (code[ip++]) {
+                        case CONSTANT:
+                            stack[sp++] = constants[readShort(code, ip)];
+                            ip += 2;
+                            break;
+                        case NIL:
+                            stack[sp++] = null;
+                            break;
+                        case POP:
+                            stack[--sp] = null;
+                            break;
+
+                        case GET_LOCAL:
+                            stack[sp++] = Frames.get(scope, readShort(code, ip), readShort(code, ip + 2),
+                                    (Token) constants[readShort(code, ip + 4)], globals);
+                            ip += 6;
+                            break;
+                        case SET_LOCAL:
+                            Frames.assign(scope, readShort(code, ip), readShort(code, ip + 2),
+                                    (Token) constants[readShort(code, ip + 4)], stack[sp - 1], globals);
+                            ip += 6;
+                            break;
+                        case DEFINE_LOCAL:
+                            Frames.define(scope, readShort(code, ip), stack[--sp]);
+                            ip += 2;
+                            break;
+                        case GET_GLOBAL:
+                            stack[sp++] = globals.get((Token) constants[readShort(code, ip)]);
+                            ip += 2;
+                            break;
+                        case SET_GLOBAL:
+                            globals.assign((Token) constants[readShort(code, ip)], stack[sp - 1]);
+                            ip += 2;
+                            break;
+                        case DEFINE_GLOBAL:
+                            globals.define(((Token) constants[readShort(code, ip)]).lexeme, stack[--sp]);
+                            ip += 2;
+                            break;
+                        case GET_NAME:
+                            stack[sp++] = Frames.get(scope, (Token) constants[readShort(code, ip)], globals);
+                            ip += 2;
+                            break;
+                        case SET_NAME:
+                            Frames.assign(scope, (Token) constants[readShort(code, ip)], stack[sp - 1], globals);
+                            ip += 2;
+                            break;
+
+                        case ADD:
+                            stack[sp - 2] = (Double) stack[sp - 2] + (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case SUBTRACT:
+                            stack[sp - 2] = (Double) stack[sp - 2] - (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case MULTIPLY:
+                            stack[sp - 2] = (Double) stack[sp - 2] * (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case DIVIDE:
+                            stack[sp - 2] = (Double) stack[sp - 2] / (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case NEGATE:
+                            stack[sp - 1] = -(Double) stack[sp - 1];
+                            break;
+                        case NOT:
+                            stack[sp - 1] = !(Boolean) stack[sp - 1];
+                            break;
+                        case EQUAL:
+                            stack[sp - 2] = Objects.equals(stack[sp - 2], stack[sp - 1]);
+                            stack[--sp] = null;
+                            break;
+                        case LESS:
+                            stack[sp - 2] = (Double) stack[sp - 2] < (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case LESS_EQUAL:
+                            stack[sp - 2] = (Double) stack[sp - 2] <= (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case GREATER:
+                            stack[sp - 2] = (Double) stack[sp - 2] > (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+                        case GREATER_EQUAL:
+                            stack[sp - 2] = (Double) stack[sp - 2] >= (Double) stack[sp - 1];
+                            stack[--sp] = null;
+                            break;
+
+                        case JUMP:
+                            ip += readShort(code, ip) + 2;
+                            break;
+                        case JUMP_IF_FALSE:
+                            if ((Boolean) stack[--sp]) {
+                                ip += 2;
+                            } else {
+                                ip += readShort(code, ip) + 2;
+                            }
+                            stack[sp] = null;
+                            break;
+                        case LOOP:
+                            ip -= readShort(code, ip) - 2;
+                            break;
+
+                        case CALL: {
+                            int count = readShort(code, ip);
+                            int name = readShort(code, ip + 2);
+                            ip += 4;
+                            Object callee = stack[sp - count - 1];
+                            if (callee instanceof Closure) {
+                                Closure closure = (Closure) callee;
+                                BytecodeFunction function = closure.function;
+                                if (count != function.arity) {
+                                    throw new RuntimeError(token(constants, name),
+                                            "Expected " + function.arity + " arguments but got " + count + ".");
+                                }
+                                Object[] callScope = Frames.create(closure.scope, function.names);
+                                for (int i = 0; i < count; i++) {
+                                    // the Resolver puts parameter i into slot i
+                                    Frames.define(callScope, i, stack[sp - count + i]);
+                                    stack[sp - count + i] = null;
+                                }
+                                sp -= count;
+                                frame.ip = ip;
+                                frame.scope = scope;
+                                frame = current.frame(fp++);
+                                frame.function = function;
+                                frame.base = sp - 1;
+                                stack = current.grow(sp + function.maxStack);
+                                code = function.chunk.code;
+                                constants = function.chunk.constants;
+                                scope = callScope;
+                                ip = 0;
+                            } else if (callee instanceof Coroutine) {
+                                Coroutine coroutine = (Coroutine) callee;
+                                if (count != 0) {
+                                    throw new RuntimeError(token(constants, name), "Expected 0 arguments but got " + count + ".");
+                                }
+                                if (coroutine.done) {
+                                    throw new RuntimeError(token(constants, name), "Cannot resume a finished coroutine.");
+                                }
+                                if (coroutine.caller != null || coroutine == current) {
+                                    throw new RuntimeError(token(constants, name), "Cannot resume a running coroutine.");
+                                }
+                                save(current, frame, ip, scope, sp, fp);
+                                coroutine.caller = current;
+                                current = coroutine;
+                                continue resume;
+                            } else if (callee == YIELD) {
+                                if (count != 1) {
+                                    throw new RuntimeError(token(constants, name), "Expected 1 arguments but got " + count + ".");
+                                }
+                                Coroutine caller = current.caller;
+                                if (caller == null && !current.suspends) {
+                                    throw new RuntimeError(token(constants, name), "Can only yield inside a coroutine.");
+                                }
+                                Object value = stack[--sp];
+                                stack[sp] = null;
+                                // once resumed, the call of yield evaluates to nil
+                                stack[sp - 1] = null;
+                                save(current, frame, ip, scope, sp, fp);
+                                if (caller == null) return;
+                                current.caller = null;
+                                current = caller;
+                                // the value replaces the coroutine the caller called
+                                current.stack[current.sp - 1] = value;
+                                continue resume;
+                            } else if (callee instanceof LoxCallable) {
+                                LoxCallable function = (LoxCallable) callee;
+                                if (count != function.arity()) {
+                                    throw new RuntimeError(token(constants, name),
+                                            "Expected " + function.arity() + " arguments but got " + count + ".");
+                                }
+                                Object result = callNative(function, stack, sp - count, count);
+                                while (count-- > 0) {
+                                    stack[--sp] = null;
+                                }
+                                stack[sp - 1] = result;
+                            } else {
+                                throw new RuntimeError(token(constants, name), "Can only call expressions of type function.");
+                            }
+                            break;
+                        }
+                        case CLOSURE:
+                            stack[sp++] = new Closure((BytecodeFunction) constants[readShort(code, ip)], scope);
+                            ip += 2;
+                            break;
+                        case RETURN: {
+                            Object result = stack[--sp];
+                            if (--fp == 0) {
+                                Coroutine caller = current.caller;
+                                current.caller = null;
+                                current.finish();
+                                if (caller == null) return;
+                                current = caller;
+                                current.stack[current.sp - 1] = result;
+                                continue resume;
+                            }
+                            while (sp > frame.base) {
+                                stack[--sp] = null;
+                            }
+                            stack[sp++] = result;
+                            frame.function = null;
+                            frame.scope = null;
+                            frame = current.frames[fp - 1];
+                            code = frame.function.chunk.code;
+                            constants = frame.function.chunk.constants;
+                            scope = frame.scope;
+                            ip = frame.ip;
+                            break;
+                        }
+                        case ENTER_SCOPE:
+                            scope = Frames.create(scope, (String[]) constants[readShort(code, ip)]);
+                            ip += 2;
+                            break;
+                        case EXIT_SCOPE:
+                            scope = Frames.enclosing(scope);
+                            break;
+                        case PRINT:
+                            System.out.println(stack[--sp]);
+                            stack[sp] = null;
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown instruction " + code[ip - 1] + " at " + (ip - 1));
+                    }
+                }
+            } catch (RuntimeError error) {
+                // a name constant stands for every use, the line is the one of the failing instruction
+                throw error.at(frame.function.chunk.lines[ip - 1]);
+            }
+        }
+    }
+
+    // Keeps the position of a coroutine that suspends or calls another one
+    private static void save(Coroutine coroutine, CallFrame frame, int ip, Object[] scope, int sp, int fp) {
+        frame.ip = ip;
+        frame.scope = scope;
+        coroutine.sp = sp;
+        coroutine.fp = fp;
+    }
+
+    // Calls a native with the count arguments on the stack from start
+    private Object callNative(LoxCallable function, Object[] stack, int start, int count) {
+        switch (count) {
+            case 0: return function.call0(interpreter);
+            case 1: return function.call1(interpreter, stack[start]);
+            case 2: return function.call2(interpreter, stack[start], stack[start + 1]);
+            case 3: return function.call3(interpreter, stack[start], stack[start + 1], stack[start + 2]);
+            case 4: return function.call4(interpreter, stack[start], stack[start + 1], stack[start + 2], stack[start + 3]);
+            default: return function.call(interpreter, new ArrayList<>(Arrays.asList(stack).subList(start, start + count)));
+        }
+    }
+
+    private static int readShort(byte[] code, int offset) {
+        return ((code[offset] & 0xff) << 8) | (code[offset + 1] & 0xff);
+    }
+
+    private static Token token(Object[] constants, int name) {
+        return name == NO_NAME ? null : (Token) constants[name];
+    }
+
+    // Native with one argument
+    private abstract static class Native implements LoxCallable {
+        @Override
+        public int arity() {
+            return 1;
+        }
+
+        @Override
+        public Object call(Interpreter interpreter, List<Object> arguments) {
+            return call1(interpreter, arguments.get(0));
+        }
+
+        @Override
+        public String toString() {
+            return "<native fn>";
+        }
+    }
+}
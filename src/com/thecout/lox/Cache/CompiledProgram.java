@@ -0,0 +1,19 @@
+package com.thecout.lox.Cache;
+
+import com.thecout.lox.Parser.Flat.FlatAst;
+import com.thecout.lox.Parser.ParserError;
+
+import java.util.List;
+
+// Front end result handed out by the ProgramCache. Programs with errors are compiled every time, never cached.
+public class CompiledProgram {
+    public final FlatAst ast;
+    public final List<ParserError> errors;
+    public final boolean fromCache;
+
+    CompiledProgram(FlatAst ast, List<ParserError> errors, boolean fromCache) {
+        this.ast = ast;
+        this.errors = errors;
+        this.fromCache = fromCache;
+    }
+}
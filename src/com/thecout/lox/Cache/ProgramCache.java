@@ -0,0 +1,118 @@
+package com.thecout.lox.Cache;
+
+import com.thecout.lox.Parser.Flat.FlatAst;
+import com.thecout.lox.Parser.Flat.FlatAstFormat;
+import com.thecout.lox.Parser.Parser;
+import com.thecout.lox.Parser.ParserError;
+import com.thecout.lox.Parser.ParserMode;
+import com.thecout.lox.Scanner;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/*
+ * On disk cache of compiled programs. An entry is the FlatAstFormat encoding of a
+ * program, stored in a file named after the SHA-256 of the compiler version, the
+ * parser mode and the source. Entries are read through a memory mapping, so every
+ * JVM on the host shares the same page cache copy, and written to a temporary file
+ * first and then moved into place, so readers never see a partial entry.
+ */
+public class ProgramCache {
+    // Part of every key, bump it whenever scanner or parser output changes
+    public static final String COMPILER_VERSION = "jlox-" + FlatAstFormat.VERSION;
+    private static final String EXTENSION = ".loxc";
+
+    private final Path directory;
+    private final ParserMode mode;
+
+    public ProgramCache(Path directory) {
+        this(directory, ParserMode.LL1);
+    }
+
+    public ProgramCache(Path directory, ParserMode mode) {
+        this.directory = directory;
+        this.mode = mode;
+    }
+
+    public CompiledProgram load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Path entry = entry(key(source));
+            FlatAst cached = read(entry);
+            if (cached != null) return new CompiledProgram(cached, List.of(), true);
+            return compile(Scanner.ofFile(file), entry);
+        }
+    }
+
+    public CompiledProgram load(String source) throws IOException {
+        Path entry = entry(key(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8))));
+        FlatAst cached = read(entry);
+        if (cached != null) return new CompiledProgram(cached, List.of(), true);
+        return compile(new Scanner(source), entry);
+    }
+
+    private CompiledProgram compile(Scanner scanner, Path entry) throws IOException {
+        Parser parser = new Parser(scanner.scanToBuffer().stream(), mode);
+        FlatAst ast = FlatAst.of(parser.parse());
+        List<ParserError> errors = ParserError.merge(scanner.getErrors(), parser.getErrors());
+        if (errors.isEmpty()) {
+            write(entry, FlatAstFormat.encode(ast));
+        }
+        return new CompiledProgram(ast, errors, false);
+    }
+
+    // null when there is no entry or it was written by another format version
+    private FlatAst read(Path entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            return FlatAstFormat.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            // foreign or truncated entry, it is replaced by the next compile
+            return null;
+        }
+    }
+
+    private void write(Path entry, ByteBuffer bytes) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private String key(ByteBuffer source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(COMPILER_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) mode.ordinal());
+            digest.update(source);
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.thecout.lox;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Keeps the tokens of a source up to date while it is edited. The source sits in a
+ * gap buffer and the tokens in one run per line, the runs in a gap array of their
+ * own. An edit moves both gaps to where it happens and rescans only the lines it
+ * touches, so its cost depends on the size of the edit and its distance from the
+ * previous one, not on the size of the source. Starts of the lines behind the gap
+ * are kept as distance from the end of the source, and tokens keep the line they
+ * were scanned on until getTokens() reads them, so neither is rewritten when an
+ * edit shifts them.
+ */
+public class IncrementalScanner {
+    private static final Token[] NO_TOKENS = new Token[0];
+
+    private final SymbolTable symbols;
+    private final GapBuffer text;
+    private Token[][] lineTokens = new Token[16][];
+    private int[] lineStarts = new int[16];
+    private int lineGapStart = 0;
+    private int lineGapEnd = 16;
+    private int tokenCount;
+    private Token eof;
+    private final Tokens view = new Tokens();
+
+    public IncrementalScanner(String source) {
+        Scanner scanner = new Scanner(source);
+        this.symbols = scanner.getSymbols();
+        this.text = new GapBuffer(source);
+        index(scanner.scan());
+    }
+
+    // Continues from tokens produced by a table Scanner for source, using that scanner's symbols.
+    public IncrementalScanner(String source, List<Token> tokens, SymbolTable symbols) {
+        this.symbols = symbols;
+        this.text = new GapBuffer(source);
+        index(tokens);
+    }
+
+    // A copy of the whole source
+    public String getSource() {
+        return text.toString();
+    }
+
+    // A view that follows later edits
+    public List<Token> getTokens() {
+        return view;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public List<Token> apply(TextEdit edit) {
+        if (edit.end > text.length()) {
+            throw new IllegalArgumentException("Edit end " + edit.end + " is beyond the source length " + text.length());
+        }
+        int firstLine = lineOf(edit.start);
+        int lastLine = lineOf(edit.end);
+        int regionStart = lineStart(firstLine);
+        boolean lastLineOfSource = lastLine + 1 == lineCount();
+
+        // drop the damaged lines, the gap is then right behind the lines in front of them
+        moveLineGap(firstLine);
+        for (int line = lastLine; line >= firstLine; line--) {
+            tokenCount -= lineTokens[lineGapEnd].length;
+            lineTokens[lineGapEnd++] = null;
+        }
+
+        text.replace(edit.start, edit.end, edit.replacement);
+        int regionEnd = lastLineOfSource ? text.length() : text.length() - lineStarts[lineGapEnd];
+
+        int newlines = 0;
+        for (int i = regionStart; i < regionEnd; i++) {
+            if (text.charAt(i) == '\n') newlines++;
+        }
+        // every line feed ends a line of the region, the last line of the source ends without one
+        int lines = lastLineOfSource ? newlines + 1 : newlines;
+        ensureLineGap(lines);
+        int line = lineGapStart;
+        lineStarts[line] = regionStart;
+        for (int i = regionStart; i < regionEnd && line < lineGapStart + lines - 1; i++) {
+            if (text.charAt(i) == '\n') lineStarts[++line] = i + 1;
+        }
+
+        Token[] rescanned = new Token[8];
+        int count = 0;
+        // lexical errors are left to a full Scanner of the source
+        Lexer lexer = new Lexer(text, regionStart, regionEnd, firstLine, symbols, new ArrayList<>());
+        for (Token token = lexer.next(); token.type != TokenType.EOF; token = lexer.next()) {
+            if (count == rescanned.length) rescanned = Arrays.copyOf(rescanned, count * 2);
+            rescanned[count++] = token;
+        }
+        int from = 0;
+        for (int k = 0; k < lines; k++) {
+            int to = from;
+            while (to < count && rescanned[to].line == firstLine + k) to++;
+            lineTokens[lineGapStart + k] = from == to ? NO_TOKENS : Arrays.copyOfRange(rescanned, from, to);
+            from = to;
+        }
+        lineGapStart += lines;
+        tokenCount += count;
+
+        eof = new Token(TokenType.EOF, "", "", eofLine());
+        view.reset();
+        return view;
+    }
+
+    private void index(List<Token> tokens) {
+        ensureLineGap(1);
+        lineStarts[0] = 0;
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                ensureLineGap(lines + 1);
+                lineStarts[lines++] = i + 1;
+            }
+        }
+        ensureLineGap(lines);
+        int from = 0;
+        int last = tokens.size() - 1;
+        for (int line = 0; line < lines; line++) {
+            int to = from;
+            while (to < last && tokens.get(to).line == line) to++;
+            lineTokens[line] = from == to ? NO_TOKENS : tokens.subList(from, to).toArray(NO_TOKENS);
+            from = to;
+        }
+        lineGapStart = lines;
+        tokenCount = last;
+        eof = tokens.get(last);
+    }
+
+    private int lineCount() {
+        return lineGapStart + lineStarts.length - lineGapEnd;
+    }
+
+    private int lineStart(int line) {
+        if (line < lineGapStart) return lineStarts[line];
+        return text.length() - lineStarts[line + lineGapEnd - lineGapStart];
+    }
+
+    private Token[] runOf(int line) {
+        return lineTokens[line < lineGapStart ? line : line + lineGapEnd - lineGapStart];
+    }
+
+    // Moves lines across the gap until it is in front of line, converting their starts between both forms.
+    private void moveLineGap(int line) {
+        // with an empty gap a line would be moved onto itself
+        ensureLineGap(1);
+        int length = text.length();
+        while (lineGapStart > line) {
+            lineGapStart--;
+            lineGapEnd--;
+            lineStarts[lineGapEnd] = length - lineStarts[lineGapStart];
+            lineTokens[lineGapEnd] = lineTokens[lineGapStart];
+            lineTokens[lineGapStart] = null;
+        }
+        while (lineGapStart < line) {
+            lineStarts[lineGapStart] = length - lineStarts[lineGapEnd];
+            lineTokens[lineGapStart] = lineTokens[lineGapEnd];
+            lineTokens[lineGapEnd] = null;
+            lineGapStart++;
+            lineGapEnd++;
+        }
+    }
+
+    private void ensureLineGap(int lines) {
+        if (lineGapEnd - lineGapStart >= lines) return;
+        int behind = lineStarts.length - lineGapEnd;
+        int capacity = Math.max(lineStarts.length * 2, lineGapStart + lines + behind);
+        int[] starts = Arrays.copyOf(lineStarts, capacity);
+        Token[][] runs = Arrays.copyOf(lineTokens, capacity);
+        System.arraycopy(lineStarts, lineGapEnd, starts, capacity - behind, behind);
+        System.arraycopy(lineTokens, lineGapEnd, runs, capacity - behind, behind);
+        Arrays.fill(runs, lineGapStart, capacity - behind, null);
+        lineStarts = starts;
+        lineTokens = runs;
+        lineGapEnd = capacity - behind;
+    }
+
+    private int lineOf(int offset) {
+        int low = 0;
+        int high = lineCount() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStart(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    // Same line as the EOF token of a full scan, see Lexer.eofLine().
+    private int eofLine() {
+        int length = text.length();
+        if (length == 0) return 1;
+        int trailing = 0;
+        while (trailing < length && text.charAt(length - 1 - trailing) == '\n') {
+            trailing++;
+        }
+        if (trailing == length) return 0;
+        return lineCount() - trailing;
+    }
+
+    /*
+     * The tokens of all lines in order followed by EOF. Reading in order is cheap,
+     * the position of the last read is kept. A token whose line was shifted by an
+     * edit is replaced by one with the current line when it is read.
+     */
+    private class Tokens extends AbstractList<Token> {
+        private int cursorLine;
+        // Index of the first token of cursorLine
+        private int cursorIndex;
+
+        void reset() {
+            cursorLine = 0;
+            cursorIndex = 0;
+        }
+
+        @Override
+        public int size() {
+            return tokenCount + 1;
+        }
+
+        @Override
+        public Token get(int index) {
+            if (index == tokenCount) return eof;
+            if (index < 0 || index > tokenCount) {
+                throw new IndexOutOfBoundsException("Token " + index + " of " + size());
+            }
+            while (index < cursorIndex) {
+                cursorIndex -= runOf(--cursorLine).length;
+            }
+            Token[] run = runOf(cursorLine);
+            while (index >= cursorIndex + run.length) {
+                cursorIndex += run.length;
+                run = runOf(++cursorLine);
+            }
+            Token token = run[index - cursorIndex];
+            if (token.line != cursorLine) {
+                token = new Token(token.type, token.lexeme, token.literal, cursorLine, token.symbol);
+                run[index - cursorIndex] = token;
+            }
+            return token;
+        }
+    }
+
+    // The characters of the source around a gap at the position of the last edit.
+    private static final class GapBuffer implements CharSequence {
+        private char[] chars;
+        private int gapStart;
+        private int gapEnd;
+
+        GapBuffer(String source) {
+            chars = Arrays.copyOf(source.toCharArray(), Math.max(16, source.length() * 2));
+            gapStart = source.length();
+            gapEnd = chars.length;
+        }
+
+        void replace(int start, int end, String replacement) {
+            moveGap(start);
+            gapEnd += end - start;
+            if (gapEnd - gapStart < replacement.length()) {
+                int behind = chars.length - gapEnd;
+                int capacity = Math.max(chars.length * 2, gapStart + replacement.length() + behind);
+                char[] grown = Arrays.copyOf(chars, capacity);
+                System.arraycopy(chars, gapEnd, grown, capacity - behind, behind);
+                chars = grown;
+                gapEnd = capacity - behind;
+            }
+            replacement.getChars(0, replacement.length(), chars, gapStart);
+            gapStart += replacement.length();
+        }
+
+        private void moveGap(int position) {
+            if (position < gapStart) {
+                int moved = gapStart - position;
+                System.arraycopy(chars, position, chars, gapEnd - moved, moved);
+                gapStart -= moved;
+                gapEnd -= moved;
+            } else if (position > gapStart) {
+                int moved = position - gapStart;
+                System.arraycopy(chars, gapEnd, chars, gapStart, moved);
+                gapStart += moved;
+                gapEnd += moved;
+            }
+        }
+
+        @Override
+        public int length() {
+            return chars.length - (gapEnd - gapStart);
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index < gapStart ? index : index + gapEnd - gapStart];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.thecout.lox;
+
+import java.util.List;
+
+import static com.thecout.lox.ScannerTable.*;
+
+/*
+ * Pull based scanner walking every character once through the ScannerTable DFA.
+ * Produces the same tokens as the regex based Scanner.scanLine.
+ */
+class Lexer implements TokenSource {
+    private final CharSequence source;
+    private final SymbolTable symbols;
+    // Receives an error for every character that starts no token
+    private final List<ScanError> errors;
+    private final int end;
+    private final boolean empty;
+    private int position;
+    private int line;
+    private int lastContentLine = -1;
+    private Token eof;
+
+    // Extent of the token found by the last call to scanToken()
+    private int tokenStart;
+    private int tokenEnd;
+
+    Lexer(CharSequence source, int start, int end, int line, SymbolTable symbols, List<ScanError> errors) {
+        this.source = source;
+        this.symbols = symbols;
+        this.errors = errors;
+        this.position = start;
+        this.end = end;
+        this.empty = start == end;
+        this.line = line;
+    }
+
+    Lexer(CharSequence source, SymbolTable symbols, List<ScanError> errors) {
+        this(source, 0, source.length(), 0, symbols, errors);
+    }
+
+    @Override
+    public Token next() {
+        int state = scanToken();
+        if (state == ERROR) {
+            if (eof == null) {
+                eof = new Token(TokenType.EOF, "", "", eofLine());
+            }
+            return eof;
+        }
+        return token(state, tokenStart, tokenEnd);
+    }
+
+    // Appends all remaining tokens including EOF without creating Token objects.
+    void scanInto(TokenBuffer buffer) {
+        for (int state = scanToken(); state != ERROR; state = scanToken()) {
+            switch (state) {
+                case IDENTIFIER: {
+                    int keyword = keyword(tokenStart, tokenEnd);
+                    if (keyword >= 0) {
+                        buffer.add(KEYWORD_TYPES[keyword], tokenStart, tokenEnd - tokenStart, line, null);
+                    } else {
+                        buffer.addIdentifier(tokenStart, tokenEnd - tokenStart, line, symbols.intern(source, tokenStart, tokenEnd));
+                    }
+                    break;
+                }
+                case INTEGER:
+                case FRACTION:
+                    buffer.add(TokenType.NUMBER, tokenStart, tokenEnd - tokenStart, line, Double.parseDouble(text(tokenStart, tokenEnd)));
+                    break;
+                case STRING:
+                    buffer.add(TokenType.STRING, tokenStart + 1, tokenEnd - tokenStart - 2, line, null);
+                    break;
+                case COMMENT:
+                    buffer.add(TokenType.COMMENT, tokenStart, tokenEnd - tokenStart, line, null);
+                    break;
+                case SINGLE_CHARACTER:
+                    buffer.add(SINGLE_TYPE[source.charAt(tokenStart)], tokenStart, 1, line, null);
+                    break;
+                default:
+                    buffer.add(FIXED_TYPE[state], tokenStart, tokenEnd - tokenStart, line, null);
+            }
+        }
+        buffer.add(TokenType.EOF, position, 0, eofLine(), null);
+    }
+
+    // Runs the DFA up to the next token and returns its accepting state, or ERROR at the end of the input.
+    private int scanToken() {
+        while (position < end) {
+            int start = position;
+            int state = START;
+            int accepted = ERROR;
+            int acceptedEnd = start;
+            int i = start;
+            while (i < end) {
+                state = ScannerTable.next(state, source.charAt(i));
+                if (state == ERROR) break;
+                i++;
+                if (ACCEPTING[state]) {
+                    accepted = state;
+                    acceptedEnd = i;
+                }
+            }
+
+            if (accepted == ERROR) {
+                int errorEnd = Math.max(i, start + 1);
+                lastContentLine = line;
+                position = errorEnd;
+                errors.add(new ScanError(line, "No matching token found for lexem " + source.subSequence(start, errorEnd) + "."));
+                continue;
+            }
+
+            position = acceptedEnd;
+            if (accepted == NEWLINE) {
+                line++;
+                continue;
+            }
+            lastContentLine = line;
+            if (accepted == WHITESPACE) continue;
+
+            tokenStart = start;
+            tokenEnd = acceptedEnd;
+            return accepted;
+        }
+        return ERROR;
+    }
+
+    // Line of the EOF token, equal to the number of lines String.split("\n") yields for the scanned input.
+    private int eofLine() {
+        if (empty) return line + 1;
+        return lastContentLine + 1;
+    }
+
+    private Token token(int state, int start, int end) {
+        switch (state) {
+            case IDENTIFIER: {
+                int keyword = keyword(start, end);
+                if (keyword >= 0) {
+                    return new Token(KEYWORD_TYPES[keyword], KEYWORDS[keyword], KEYWORDS[keyword], line);
+                }
+                int symbol = symbols.intern(source, start, end);
+                String lexeme = symbols.name(symbol);
+                return new Token(TokenType.IDENTIFIER, lexeme, lexeme, line, symbol);
+            }
+            case INTEGER:
+            case FRACTION: {
+                String lexeme = text(start, end);
+                return new Token(TokenType.NUMBER, lexeme, Double.parseDouble(lexeme), line);
+            }
+            case STRING: {
+                String content = text(start + 1, end - 1);
+                return new Token(TokenType.STRING, content, content, line);
+            }
+            case COMMENT: {
+                String comment = text(start, end);
+                return new Token(TokenType.COMMENT, comment, comment, line);
+            }
+            case SINGLE_CHARACTER: {
+                char c = source.charAt(start);
+                return new Token(SINGLE_TYPE[c], SINGLE_LEXEME[c], SINGLE_LEXEME[c], line);
+            }
+            default:
+                return new Token(FIXED_TYPE[state], FIXED_LEXEME[state], FIXED_LEXEME[state], line);
+        }
+    }
+
+    // Compares the lexeme in place against the single keyword its perfect hash selects.
+    private int keyword(int start, int end) {
+        int length = end - start;
+        int k = keywordCandidate(source.charAt(start), source.charAt(end - 1), length);
+        if (k < 0) return -1;
+        String keyword = KEYWORDS[k];
+        if (keyword.length() != length) return -1;
+        for (int i = 0; i < length; i++) {
+            if (keyword.charAt(i) != source.charAt(start + i)) return -1;
+        }
+        return k;
+    }
+
+    private String text(int start, int end) {
+        return source.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.thecout.lox;
+
+/*
+ * Tokens pulled on demand from a TokenSource. Only a ring buffer of the last
+ * HISTORY consumed tokens plus the lookahead window is kept in memory.
+ */
+public class LookaheadTokenStream implements TokenStream {
+    private static final int HISTORY = 2;
+
+    private final TokenSource source;
+    private final Token[] buffer;
+    private final int mask;
+    private final int lookahead;
+    private long current = 0;
+    private long filled = 0;
+
+    public LookaheadTokenStream(TokenSource source) {
+        this(source, 1);
+    }
+
+    public LookaheadTokenStream(TokenSource source, int lookahead) {
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("Lookahead must be at least 1");
+        }
+        int capacity = Integer.highestOneBit(lookahead + HISTORY) << 1;
+        this.source = source;
+        this.buffer = new Token[capacity];
+        this.mask = capacity - 1;
+        this.lookahead = lookahead;
+    }
+
+    @Override
+    public Token peek() {
+        return peek(0);
+    }
+
+    @Override
+    public Token peek(int distance) {
+        if (distance < 0 || distance >= lookahead) {
+            throw new IllegalArgumentException("Lookahead " + distance + " exceeds window of " + lookahead);
+        }
+        long index = current + distance;
+        while (filled <= index) {
+            buffer[(int) (filled & mask)] = source.next();
+            filled++;
+        }
+        return buffer[(int) (index & mask)];
+    }
+
+    @Override
+    public TokenType peekType() {
+        return peek(0).type;
+    }
+
+    @Override
+    public Token previous() {
+        if (current == 0) {
+            throw new IllegalStateException("No token consumed yet");
+        }
+        return buffer[(int) ((current - 1) & mask)];
+    }
+
+    @Override
+    public void advance() {
+        peek(0);
+        current++;
+    }
+
+    // At most HISTORY tokens can be stepped back.
+    @Override
+    public void rewind() {
+        if (current == 0 || current - 1 < filled - buffer.length) {
+            throw new IllegalStateException("Cannot rewind beyond the token history");
+        }
+        current--;
+    }
+}
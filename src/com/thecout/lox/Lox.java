@@ -0,0 +1,35 @@
+package com.thecout.lox;
+
+import com.thecout.lox.Parser.Parser;
+import com.thecout.lox.Parser.ParserError;
+import com.thecout.lox.Parser.Stmts.Stmt;
+import com.thecout.lox.Traversal.ExecutionMode;
+import com.thecout.lox.Traversal.Interpreter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * Command line entry point, runs one file. The errors the Scanner and Parser collected are
+ * printed as "line message", a file with errors is not run.
+ */
+public class Lox {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Usage: lox <file> [TREE_WALKING | BYTECODE | SPECIALIZING]");
+            System.exit(64);
+        }
+        ExecutionMode mode = args.length == 2 ? ExecutionMode.valueOf(args[1]) : ExecutionMode.TREE_WALKING;
+
+        Scanner scanner = Scanner.ofFile(Path.of(args[0]));
+        Parser parser = new Parser(scanner.scanToBuffer().stream());
+        List<Stmt> statements = parser.parse();
+        List<ParserError> errors = ParserError.merge(scanner.getErrors(), parser.getErrors());
+        if (!errors.isEmpty()) {
+            errors.forEach(System.out::println);
+            System.exit(65);
+        }
+        new Interpreter(mode).interpret(statements);
+    }
+}
@@ -0,0 +1,85 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+import com.thecout.lox.Traversal.Resolver;
+
+final class AssignNode extends ExprNode {
+    private final Token name;
+    private final int depth;
+    private final int slot;
+    private final Environment globals;
+    private ExprNode value;
+    // Cleared once the value was no number, from then on it is stored boxed
+    private boolean numbers = true;
+
+    AssignNode(Token name, int depth, int slot, Environment globals, ExprNode value) {
+        this.name = name;
+        this.depth = depth;
+        this.slot = slot;
+        this.globals = globals;
+        this.value = adopt(value);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (value != child) super.replaceChild(child, replacement);
+        value = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        if (numbers && depth >= 0) {
+            try {
+                return assign(frame, value.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                numbers = false;
+                return assign(frame, e.result);
+            }
+        }
+        return assign(frame, value.execute(frame));
+    }
+
+    @Override
+    public double executeDouble(Frame frame) throws UnexpectedResult {
+        if (numbers && depth >= 0) {
+            try {
+                return assign(frame, value.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                numbers = false;
+                throw new UnexpectedResult(assign(frame, e.result));
+            }
+        }
+        return super.executeDouble(frame);
+    }
+
+    @Override
+    public void executeVoid(Frame frame) {
+        if (numbers && depth >= 0) {
+            try {
+                assign(frame, value.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                numbers = false;
+                assign(frame, e.result);
+            }
+            return;
+        }
+        assign(frame, value.execute(frame));
+    }
+
+    private double assign(Frame frame, double result) {
+        Frame.assignDouble(frame, depth, slot, name, result, globals);
+        return result;
+    }
+
+    private Object assign(Frame frame, Object result) {
+        if (depth >= 0) {
+            Frame.assign(frame, depth, slot, name, result, globals);
+        } else if (depth == Resolver.GLOBAL) {
+            globals.assign(name, result);
+        } else {
+            Frame.assign(frame, name, result, globals);
+        }
+        return result;
+    }
+}
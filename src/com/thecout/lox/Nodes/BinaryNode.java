@@ -0,0 +1,79 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.TokenType;
+
+import java.util.Objects;
+
+/*
+ * Binary and Logical operators. A BinaryNode starts out uninitialized and on
+ * its first execution replaces itself by a node for the operand types it saw:
+ * one of the DoubleNodes for numbers, the GenericBinaryNode for everything
+ * else. A DoubleNode that sees another type later goes back to the generic one.
+ */
+public abstract class BinaryNode extends ExprNode {
+    final TokenType operator;
+    ExprNode left;
+    ExprNode right;
+
+    BinaryNode(TokenType operator, ExprNode left, ExprNode right) {
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+    }
+
+    public static BinaryNode create(TokenType operator, ExprNode left, ExprNode right) {
+        return new Uninitialized(operator, left, right);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (left == child) {
+            left = (ExprNode) replacement;
+        } else if (right == child) {
+            right = (ExprNode) replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+
+    // The operator on operands of any type, with the rules of the Interpreter
+    static Object generic(TokenType operator, Object left, Object right) {
+        switch (operator) {
+            case STAR: return ((Double) left) * ((Double) right);
+            case SLASH: return ((Double) left) / ((Double) right);
+            case PLUS: return ((Double) left) + ((Double) right);
+            case MINUS: return ((Double) left) - ((Double) right);
+            case EQUAL_EQUAL: return Objects.equals(left, right);
+            case LESS_EQUAL: return ((Double) left) <= ((Double) right);
+            case GREATER_EQUAL: return ((Double) left) >= ((Double) right);
+            case LESS: return ((Double) left) < ((Double) right);
+            case GREATER: return ((Double) left) > ((Double) right);
+            default: throw new IllegalStateException("Unexpected value: " + operator);
+        }
+    }
+
+    // Goes back to the generic node after a DoubleNode saw an operand that is no number
+    final Object deoptimize(Object left, Object right) {
+        if (!replaced) replace(new GenericBinaryNode(operator, this.left, this.right));
+        return generic(operator, left, right);
+    }
+
+    private static final class Uninitialized extends BinaryNode {
+        Uninitialized(TokenType operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        @Override
+        public Object execute(Frame frame) {
+            Object leftValue = left.execute(frame);
+            Object rightValue = right.execute(frame);
+            // a recursive call evaluating the operands may have specialized this node already
+            if (!replaced) {
+                BinaryNode specialized = leftValue instanceof Double && rightValue instanceof Double
+                        ? DoubleNodes.create(operator, left, right) : null;
+                replace(specialized != null ? specialized : new GenericBinaryNode(operator, left, right));
+            }
+            return generic(operator, leftValue, rightValue);
+        }
+    }
+}
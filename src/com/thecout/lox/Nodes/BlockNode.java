@@ -0,0 +1,37 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+final class BlockNode extends StmtNode {
+    // null if the block runs in the frame around it
+    final String[] names;
+    private final boolean captured;
+    private final StmtNode[] statements;
+
+    BlockNode(String[] names, boolean captured, StmtNode[] statements) {
+        this.names = names;
+        this.captured = captured;
+        this.statements = statements;
+        for (StmtNode statement : statements) {
+            adopt(statement);
+        }
+    }
+
+    // Whether a loop can run every iteration of the block in one frame, see WhileNode
+    boolean reusable() {
+        return names != null && !captured;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return executeIn(names == null ? frame : new Frame(frame, names));
+    }
+
+    Object executeIn(Frame scope) {
+        for (StmtNode statement : statements) {
+            Object completion = statement.execute(scope);
+            if (completion != Completion.NORMAL) return completion;
+        }
+        return Completion.NORMAL;
+    }
+}
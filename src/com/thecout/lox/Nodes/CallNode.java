@@ -0,0 +1,114 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.Interpreter;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+import com.thecout.lox.Traversal.InterpreterUtils.LoxCallable;
+import com.thecout.lox.Traversal.InterpreterUtils.RuntimeError;
+
+import java.util.Arrays;
+
+// Arguments are evaluated before the call, Lox functions get them as an array
+final class CallNode extends ExprNode {
+    private final Interpreter interpreter;
+    // name of the callee for errors, null if it is no variable
+    private final Token name;
+    private ExprNode callee;
+    private final ExprNode[] arguments;
+    // The globals if the callee is a global, whose value is then cached, see Environment.version
+    private final Environment globals;
+    private Object cachedCallee;
+    private int cachedVersion = -1;
+    // Per argument, cleared once its value was no number, see AssignNode
+    private final boolean[] numbers;
+
+    CallNode(Interpreter interpreter, Token name, ExprNode callee, ExprNode[] arguments, Environment globals) {
+        this.interpreter = interpreter;
+        this.globals = globals;
+        this.name = name;
+        this.callee = adopt(callee);
+        this.arguments = arguments;
+        this.numbers = new boolean[arguments.length];
+        Arrays.fill(numbers, true);
+        for (ExprNode argument : arguments) {
+            adopt(argument);
+        }
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (callee == child) {
+            callee = (ExprNode) replacement;
+            return;
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] == child) {
+                arguments[i] = (ExprNode) replacement;
+                return;
+            }
+        }
+        super.replaceChild(child, replacement);
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        Object function;
+        if (globals != null && cachedVersion == globals.version()) {
+            function = cachedCallee;
+        } else {
+            function = callee.execute(frame);
+            if (globals != null && function instanceof LoxCallable) {
+                cachedCallee = function;
+                cachedVersion = globals.version();
+            }
+        }
+        if (function instanceof NodeFunction) {
+            NodeFunction target = (NodeFunction) function;
+            if (arguments.length != target.arity()) {
+                throw new RuntimeError(name, "Expected " + target.arity() + " arguments but got " + arguments.length + ".");
+            }
+            Frame calleeFrame = target.newFrame();
+            for (int i = 0; i < arguments.length; i++) {
+                argument(i, frame, calleeFrame);
+            }
+            return target.invoke(calleeFrame);
+        }
+        if (!(function instanceof LoxCallable)) {
+            throw new RuntimeError(name, "Can only call expressions of type function.");
+        }
+        LoxCallable target = (LoxCallable) function;
+        if (arguments.length != target.arity()) {
+            throw new RuntimeError(name, "Expected " + target.arity() + " arguments but got " + arguments.length + ".");
+        }
+        // natives get boxed values
+        switch (arguments.length) {
+            case 0: return target.call0(interpreter);
+            case 1: return target.call1(interpreter, arguments[0].execute(frame));
+            case 2: return target.call2(interpreter, arguments[0].execute(frame), arguments[1].execute(frame));
+            case 3: return target.call3(interpreter, arguments[0].execute(frame), arguments[1].execute(frame),
+                    arguments[2].execute(frame));
+            case 4: return target.call4(interpreter, arguments[0].execute(frame), arguments[1].execute(frame),
+                    arguments[2].execute(frame), arguments[3].execute(frame));
+            default:
+                Object[] values = new Object[arguments.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    values[i] = arguments[i].execute(frame);
+                }
+                return target.call(interpreter, Arrays.asList(values));
+        }
+    }
+
+    // Evaluates argument i straight into its parameter slot, numbers stay unboxed
+    private void argument(int i, Frame frame, Frame calleeFrame) {
+        if (numbers[i]) {
+            try {
+                calleeFrame.setDouble(i, arguments[i].executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                numbers[i] = false;
+                calleeFrame.set(i, e.result);
+            }
+        } else {
+            calleeFrame.set(i, arguments[i].execute(frame));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.TokenType;
+
+/*
+ * Operators specialized on two numbers. Every operator has its own node, so
+ * an execution neither switches over the operator nor boxes the operands of
+ * nested arithmetic, see ExprNode.executeDouble.
+ */
+final class DoubleNodes {
+    private DoubleNodes() {
+    }
+
+    // null for operators that have no specialization
+    static BinaryNode create(TokenType operator, ExprNode left, ExprNode right) {
+        switch (operator) {
+            case STAR: return new Multiply(left, right);
+            case SLASH: return new Divide(left, right);
+            case PLUS: return new Add(left, right);
+            case MINUS: return new Subtract(left, right);
+            case LESS_EQUAL: return new LessEqual(left, right);
+            case GREATER_EQUAL: return new GreaterEqual(left, right);
+            case LESS: return new Less(left, right);
+            case GREATER: return new Greater(left, right);
+            default: return null;
+        }
+    }
+
+    abstract static class Arithmetic extends BinaryNode {
+        Arithmetic(TokenType operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        abstract double apply(double left, double right);
+
+        @Override
+        public Object execute(Frame frame) {
+            double leftValue;
+            try {
+                leftValue = left.executeDouble(frame);
+            } catch (UnexpectedResult e) {
+                return deoptimize(e.result, right.execute(frame));
+            }
+            try {
+                return apply(leftValue, right.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                return deoptimize(leftValue, e.result);
+            }
+        }
+
+        @Override
+        public double executeDouble(Frame frame) throws UnexpectedResult {
+            double leftValue;
+            try {
+                leftValue = left.executeDouble(frame);
+            } catch (UnexpectedResult e) {
+                throw new UnexpectedResult(deoptimize(e.result, right.execute(frame)));
+            }
+            try {
+                return apply(leftValue, right.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                throw new UnexpectedResult(deoptimize(leftValue, e.result));
+            }
+        }
+    }
+
+    abstract static class Comparison extends BinaryNode {
+        Comparison(TokenType operator, ExprNode left, ExprNode right) {
+            super(operator, left, right);
+        }
+
+        abstract boolean test(double left, double right);
+
+        @Override
+        public Object execute(Frame frame) {
+            double leftValue;
+            try {
+                leftValue = left.executeDouble(frame);
+            } catch (UnexpectedResult e) {
+                return deoptimize(e.result, right.execute(frame));
+            }
+            try {
+                return test(leftValue, right.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                return deoptimize(leftValue, e.result);
+            }
+        }
+    }
+
+    static final class Add extends Arithmetic {
+        Add(ExprNode left, ExprNode right) {
+            super(TokenType.PLUS, left, right);
+        }
+
+        @Override
+        double apply(double left, double right) {
+            return left + right;
+        }
+    }
+
+    static final class Subtract extends Arithmetic {
+        Subtract(ExprNode left, ExprNode right) {
+            super(TokenType.MINUS, left, right);
+        }
+
+        @Override
+        double apply(double left, double right) {
+            return left - right;
+        }
+    }
+
+    static final class Multiply extends Arithmetic {
+        Multiply(ExprNode left, ExprNode right) {
+            super(TokenType.STAR, left, right);
+        }
+
+        @Override
+        double apply(double left, double right) {
+            return left * right;
+        }
+    }
+
+    static final class Divide extends Arithmetic {
+        Divide(ExprNode left, ExprNode right) {
+            super(TokenType.SLASH, left, right);
+        }
+
+        @Override
+        double apply(double left, double right) {
+            return left / right;
+        }
+    }
+
+    static final class Less extends Comparison {
+        Less(ExprNode left, ExprNode right) {
+            super(TokenType.LESS, left, right);
+        }
+
+        @Override
+        boolean test(double left, double right) {
+            return left < right;
+        }
+    }
+
+    static final class LessEqual extends Comparison {
+        LessEqual(ExprNode left, ExprNode right) {
+            super(TokenType.LESS_EQUAL, left, right);
+        }
+
+        @Override
+        boolean test(double left, double right) {
+            return left <= right;
+        }
+    }
+
+    static final class Greater extends Comparison {
+        Greater(ExprNode left, ExprNode right) {
+            super(TokenType.GREATER, left, right);
+        }
+
+        @Override
+        boolean test(double left, double right) {
+            return left > right;
+        }
+    }
+
+    static final class GreaterEqual extends Comparison {
+        GreaterEqual(ExprNode left, ExprNode right) {
+            super(TokenType.GREATER_EQUAL, left, right);
+        }
+
+        @Override
+        boolean test(double left, double right) {
+            return left >= right;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.thecout.lox.Nodes;
+
+public abstract class ExprNode extends Node {
+    public abstract Object execute(Frame frame);
+
+    // For parents that expect a number, specialized nodes override it and skip the box
+    public double executeDouble(Frame frame) throws UnexpectedResult {
+        Object value = execute(frame);
+        if (value instanceof Double) return (Double) value;
+        throw new UnexpectedResult(value);
+    }
+
+    // For parents that drop the value, so it does not need to be boxed
+    public void executeVoid(Frame frame) {
+        execute(frame);
+    }
+}
@@ -0,0 +1,149 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+
+import java.util.Arrays;
+
+/*
+ * Scope of the node tree, laid out like the frames of Frames: the enclosing
+ * frame, the slot names of the Resolver and a value per slot. Numbers are not
+ * boxed, a slot holding one is marked NUMBER and its value is in numbers.
+ * Frames end in null, behind them are the globals, which keep boxed values.
+ */
+public final class Frame {
+    // Content of a slot before its declaration has run, see Frames.UNDEFINED
+    static final Object UNDEFINED = new Object();
+    // Content of a slot whose value is in numbers
+    static final Object NUMBER = new Object();
+    private static final Object[] NO_VALUES = {};
+    private static final double[] NO_NUMBERS = {};
+
+    final Frame enclosing;
+    final String[] names;
+    final Object[] values;
+    final double[] numbers;
+
+    Frame(Frame enclosing, String[] names) {
+        this.enclosing = enclosing;
+        this.names = names;
+        if (names.length == 0) {
+            this.values = NO_VALUES;
+            this.numbers = NO_NUMBERS;
+        } else {
+            this.values = new Object[names.length];
+            this.numbers = new double[names.length];
+            Arrays.fill(values, UNDEFINED);
+        }
+    }
+
+    // See Frames.clear
+    void clear() {
+        Arrays.fill(values, UNDEFINED);
+    }
+
+    void set(int slot, Object value) {
+        if (value instanceof Double) {
+            setDouble(slot, (Double) value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    void setDouble(int slot, double value) {
+        numbers[slot] = value;
+        values[slot] = NUMBER;
+    }
+
+    // The value of a defined slot, boxed if it is a number
+    Object get(int slot) {
+        Object value = values[slot];
+        return value == NUMBER ? (Object) numbers[slot] : value;
+    }
+
+    static Frame ancestor(Frame frame, int depth) {
+        Frame current = frame;
+        for (int i = 0; i < depth; i++) {
+            current = current.enclosing;
+        }
+        return current;
+    }
+
+    static Object get(Frame frame, int depth, int slot, Token name, Environment globals) {
+        Frame target = ancestor(frame, depth);
+        Object value = target.values[slot];
+        if (value == NUMBER) return target.numbers[slot];
+        if (value != UNDEFINED) return value;
+        // not declared yet, see Frames.UNDEFINED
+        return get(target.enclosing, name, globals);
+    }
+
+    static double getDouble(Frame frame, int depth, int slot, Token name, Environment globals) throws UnexpectedResult {
+        Frame target = ancestor(frame, depth);
+        Object value = target.values[slot];
+        if (value == NUMBER) return target.numbers[slot];
+        if (value == UNDEFINED) value = get(target.enclosing, name, globals);
+        if (value instanceof Double) return (Double) value;
+        throw new UnexpectedResult(value);
+    }
+
+    static void assign(Frame frame, int depth, int slot, Token name, Object value, Environment globals) {
+        Frame target = ancestor(frame, depth);
+        if (target.values[slot] != UNDEFINED) {
+            target.set(slot, value);
+        } else {
+            assign(target.enclosing, name, value, globals);
+        }
+    }
+
+    static void assignDouble(Frame frame, int depth, int slot, Token name, double value, Environment globals) {
+        Frame target = ancestor(frame, depth);
+        if (target.values[slot] != UNDEFINED) {
+            target.setDouble(slot, value);
+        } else {
+            assign(target.enclosing, name, value, globals);
+        }
+    }
+
+    // Lookup by name through the frames and then the globals
+    static Object get(Frame frame, Token name, Environment globals) {
+        for (Frame current = frame; current != null; current = current.enclosing) {
+            int slot = current.indexOf(name.lexeme);
+            if (slot >= 0) return current.get(slot);
+        }
+        return globals.get(name);
+    }
+
+    static void assign(Frame frame, Token name, Object value, Environment globals) {
+        for (Frame current = frame; current != null; current = current.enclosing) {
+            int slot = current.indexOf(name.lexeme);
+            if (slot >= 0) {
+                current.set(slot, value);
+                return;
+            }
+        }
+        globals.assign(name, value);
+    }
+
+    // Slot of the defined variable with this name, -1 if there is none
+    private int indexOf(String name) {
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (names[i].equals(name)) {
+                return values[i] != UNDEFINED ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (values[i] == UNDEFINED) continue;
+            if (result.length() > 1) result.append(", ");
+            result.append(names[i]).append('=').append(get(i));
+        }
+        result.append('}');
+        return enclosing == null ? result.toString() : result + " -> " + enclosing;
+    }
+}
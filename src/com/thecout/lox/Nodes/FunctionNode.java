@@ -0,0 +1,37 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+
+// Declaration of a function, executing it defines a NodeFunction closing over the frame
+final class FunctionNode extends StmtNode {
+    final String name;
+    final int arity;
+    final String[] names;
+    final StmtNode[] body;
+    private final int slot;
+    private final Environment globals;
+
+    FunctionNode(String name, int arity, String[] names, StmtNode[] body, int slot, Environment globals) {
+        this.name = name;
+        this.arity = arity;
+        this.names = names;
+        this.body = body;
+        this.slot = slot;
+        this.globals = globals;
+        for (StmtNode statement : body) {
+            adopt(statement);
+        }
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        NodeFunction function = new NodeFunction(this, frame);
+        if (slot >= 0) {
+            frame.set(slot, function);
+        } else {
+            globals.define(name, function);
+        }
+        return Completion.NORMAL;
+    }
+}
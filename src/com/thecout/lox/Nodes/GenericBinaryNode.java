@@ -0,0 +1,14 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.TokenType;
+
+final class GenericBinaryNode extends BinaryNode {
+    GenericBinaryNode(TokenType operator, ExprNode left, ExprNode right) {
+        super(operator, left, right);
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return generic(operator, left.execute(frame), right.execute(frame));
+    }
+}
@@ -0,0 +1,32 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+final class IfNode extends StmtNode {
+    private ExprNode condition;
+    private final StmtNode thenBranch;
+    // null without else
+    private final StmtNode elseBranch;
+
+    IfNode(ExprNode condition, StmtNode thenBranch, StmtNode elseBranch) {
+        this.condition = adopt(condition);
+        this.thenBranch = adopt(thenBranch);
+        this.elseBranch = adopt(elseBranch);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (condition != child) super.replaceChild(child, replacement);
+        condition = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        if ((Boolean) condition.execute(frame)) {
+            return thenBranch.execute(frame);
+        } else if (elseBranch != null) {
+            return elseBranch.execute(frame);
+        }
+        return Completion.NORMAL;
+    }
+}
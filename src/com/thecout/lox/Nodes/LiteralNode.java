@@ -0,0 +1,24 @@
+package com.thecout.lox.Nodes;
+
+final class LiteralNode extends ExprNode {
+    private final Object value;
+    private final boolean isNumber;
+    private final double number;
+
+    LiteralNode(Object value) {
+        this.value = value;
+        this.isNumber = value instanceof Double;
+        this.number = isNumber ? (Double) value : 0;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return value;
+    }
+
+    @Override
+    public double executeDouble(Frame frame) throws UnexpectedResult {
+        if (isNumber) return number;
+        throw new UnexpectedResult(value);
+    }
+}
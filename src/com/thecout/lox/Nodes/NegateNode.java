@@ -0,0 +1,29 @@
+package com.thecout.lox.Nodes;
+
+final class NegateNode extends ExprNode {
+    private ExprNode right;
+
+    NegateNode(ExprNode right) {
+        this.right = adopt(right);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (right != child) super.replaceChild(child, replacement);
+        right = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return -(Double) right.execute(frame);
+    }
+
+    @Override
+    public double executeDouble(Frame frame) {
+        try {
+            return -right.executeDouble(frame);
+        } catch (UnexpectedResult e) {
+            return -(Double) e.result;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.thecout.lox.Nodes;
+
+/*
+ * Node of the executable tree the NodeBuilder makes from the AST. Nodes know
+ * their parent, so a node can put a version of itself that fits the values
+ * it has seen in its place while the tree runs.
+ */
+public abstract class Node {
+    Node parent;
+    // set once a replacement took the place of this node
+    boolean replaced;
+
+    protected final <T extends Node> T adopt(T child) {
+        if (child != null) child.parent = this;
+        return child;
+    }
+
+    // Puts replacement where this node is in the tree, later executions run the replacement
+    protected final <T extends Node> T replace(T replacement) {
+        replacement.parent = parent;
+        parent.replaceChild(this, replacement);
+        replaced = true;
+        return replacement;
+    }
+
+    void replaceChild(Node child, Node replacement) {
+        throw new IllegalStateException(getClass().getSimpleName() + " has no child " + child.getClass().getSimpleName());
+    }
+}
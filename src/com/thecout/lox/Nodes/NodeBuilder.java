@@ -0,0 +1,140 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+import com.thecout.lox.Traversal.Interpreter;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+import com.thecout.lox.Traversal.Resolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Makes the executable node tree of a resolved AST. Variables keep the depth
+ * and slot of the Resolver and frames are created where the Interpreter
+ * creates them. Operators start uninitialized and specialize while running,
+ * see BinaryNode.
+ */
+public class NodeBuilder implements ExprVisitor<ExprNode>, StmtVisitor<StmtNode> {
+    private final Interpreter interpreter;
+    private final Environment globals;
+
+    public NodeBuilder(Interpreter interpreter) {
+        this.interpreter = interpreter;
+        this.globals = interpreter.globals;
+    }
+
+    public RootNode build(List<Stmt> statements) {
+        return new RootNode(statements(statements));
+    }
+
+    private StmtNode[] statements(List<Stmt> statements) {
+        List<StmtNode> nodes = new ArrayList<>(statements.size());
+        for (Stmt statement : statements) {
+            StmtNode node = statement(statement);
+            if (node != null) nodes.add(node);
+        }
+        return nodes.toArray(new StmtNode[0]);
+    }
+
+    private StmtNode statement(Stmt stmt) {
+        return stmt == null ? null : stmt.accept(this);
+    }
+
+    private ExprNode expression(Expr expr) {
+        return expr == null ? new LiteralNode(null) : expr.accept(this);
+    }
+
+    @Override
+    public ExprNode visitAssignExpr(Assign expr) {
+        return new AssignNode(expr.name, expr.depth, expr.slot, globals, expression(expr.value));
+    }
+
+    @Override
+    public ExprNode visitBinaryExpr(Binary expr) {
+        return BinaryNode.create(expr.operator.type, expression(expr.left), expression(expr.right));
+    }
+
+    @Override
+    public ExprNode visitCallExpr(Call expr) {
+        ExprNode[] arguments = new ExprNode[expr.arguments.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = expression(expr.arguments.get(i));
+        }
+        Variable callee = expr.callee instanceof Variable ? (Variable) expr.callee : null;
+        boolean global = callee != null && callee.depth == Resolver.GLOBAL;
+        return new CallNode(interpreter, callee == null ? null : callee.name, expression(expr.callee), arguments,
+                global ? globals : null);
+    }
+
+    @Override
+    public ExprNode visitGroupingExpr(Grouping expr) {
+        return expression(expr.expression);
+    }
+
+    @Override
+    public ExprNode visitLiteralExpr(Literal expr) {
+        return new LiteralNode(expr.value);
+    }
+
+    @Override
+    public ExprNode visitLogicalExpr(Logical expr) {
+        return BinaryNode.create(expr.operator.type, expression(expr.left), expression(expr.right));
+    }
+
+    @Override
+    public ExprNode visitUnaryExpr(Unary expr) {
+        switch (expr.operator.type) {
+            case MINUS: return new NegateNode(expression(expr.right));
+            case BANG: return new NotNode(expression(expr.right));
+            default: throw new IllegalStateException("Unexpected value: " + expr.operator.type);
+        }
+    }
+
+    @Override
+    public ExprNode visitVariableExpr(Variable expr) {
+        return new VariableNode(expr.name, expr.depth, expr.slot, globals);
+    }
+
+    @Override
+    public StmtNode visitBlockStmt(Block stmt) {
+        return new BlockNode(stmt.names, stmt.captured, statements(stmt.statements));
+    }
+
+    @Override
+    public StmtNode visitExpressionStmt(Expression stmt) {
+        return stmt.expression == null ? null : new ExpressionNode(expression(stmt.expression));
+    }
+
+    @Override
+    public StmtNode visitFunctionStmt(Function stmt) {
+        return new FunctionNode(stmt.name.lexeme, stmt.parameters.size(), stmt.names,
+                statements(stmt.body), stmt.slot, globals);
+    }
+
+    @Override
+    public StmtNode visitIfStmt(If stmt) {
+        return new IfNode(expression(stmt.condition), statement(stmt.thenBranch), statement(stmt.elseBranch));
+    }
+
+    @Override
+    public StmtNode visitPrintStmt(Print stmt) {
+        return new PrintNode(expression(stmt.expression));
+    }
+
+    @Override
+    public StmtNode visitReturnStmt(Return stmt) {
+        return new ReturnNode(expression(stmt.value));
+    }
+
+    @Override
+    public StmtNode visitVarStmt(Var stmt) {
+        return new VarNode(stmt.name.lexeme, stmt.slot, globals, expression(stmt.initializer));
+    }
+
+    @Override
+    public StmtNode visitWhileStmt(While stmt) {
+        return new WhileNode(expression(stmt.condition), statement(stmt.body),
+                stmt.increment == null ? null : expression(stmt.increment));
+    }
+}
@@ -0,0 +1,51 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.Interpreter;
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+import com.thecout.lox.Traversal.InterpreterUtils.LoxCallable;
+
+import java.util.List;
+
+// Function value of the node tree, every closure of a declaration shares its nodes
+final class NodeFunction implements LoxCallable {
+    final FunctionNode declaration;
+    private final Frame closure;
+
+    NodeFunction(FunctionNode declaration, Frame closure) {
+        this.declaration = declaration;
+        this.closure = closure;
+    }
+
+    @Override
+    public int arity() {
+        return declaration.arity;
+    }
+
+    @Override
+    public Object call(Interpreter interpreter, List<Object> arguments) {
+        Frame frame = newFrame();
+        for (int i = 0; i < declaration.arity; i++) {
+            frame.set(i, arguments.get(i));
+        }
+        return invoke(frame);
+    }
+
+    // Frame of a call, the caller puts argument i into slot i as the Resolver laid them out
+    Frame newFrame() {
+        return new Frame(closure, declaration.names);
+    }
+
+    Object invoke(Frame frame) {
+        for (StmtNode statement : declaration.body) {
+            Object completion = statement.execute(frame);
+            // anything but a Completion is the value of a return
+            if (completion != Completion.NORMAL) return completion instanceof Completion ? null : completion;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "<fn " + declaration.name + ">";
+    }
+}
@@ -0,0 +1,20 @@
+package com.thecout.lox.Nodes;
+
+final class NotNode extends ExprNode {
+    private ExprNode right;
+
+    NotNode(ExprNode right) {
+        this.right = adopt(right);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (right != child) super.replaceChild(child, replacement);
+        right = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return !(Boolean) right.execute(frame);
+    }
+}
@@ -0,0 +1,23 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+final class PrintNode extends StmtNode {
+    private ExprNode expression;
+
+    PrintNode(ExprNode expression) {
+        this.expression = adopt(expression);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (expression != child) super.replaceChild(child, replacement);
+        expression = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        System.out.println(expression.execute(frame));
+        return Completion.NORMAL;
+    }
+}
@@ -0,0 +1,20 @@
+package com.thecout.lox.Nodes;
+
+final class ReturnNode extends StmtNode {
+    private ExprNode value;
+
+    ReturnNode(ExprNode value) {
+        this.value = adopt(value);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (value != child) super.replaceChild(child, replacement);
+        value = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        return value.execute(frame);
+    }
+}
@@ -0,0 +1,22 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+// The top level code of a program, it runs without a frame
+public final class RootNode extends Node {
+    private final StmtNode[] statements;
+
+    RootNode(StmtNode[] statements) {
+        this.statements = statements;
+        for (StmtNode statement : statements) {
+            adopt(statement);
+        }
+    }
+
+    public void execute() {
+        for (StmtNode statement : statements) {
+            // a return at the top level ends the program
+            if (statement.execute(null) != Completion.NORMAL) return;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+public abstract class StmtNode extends Node {
+    // Completion.NORMAL or the value of a return, see Completion
+    public abstract Object execute(Frame frame);
+}
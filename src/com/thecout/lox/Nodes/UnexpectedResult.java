@@ -0,0 +1,13 @@
+package com.thecout.lox.Nodes;
+
+// Thrown by a typed execute when the value has another type, it carries the value
+public final class UnexpectedResult extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    final Object result;
+
+    UnexpectedResult(Object result) {
+        super(null, null, false, false);
+        this.result = result;
+    }
+}
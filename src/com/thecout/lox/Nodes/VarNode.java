@@ -0,0 +1,43 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+
+final class VarNode extends StmtNode {
+    private final String name;
+    private final int slot;
+    private final Environment globals;
+    private ExprNode initializer;
+    // Cleared once the value was no number, see AssignNode
+    private boolean numbers = true;
+
+    VarNode(String name, int slot, Environment globals, ExprNode initializer) {
+        this.name = name;
+        this.slot = slot;
+        this.globals = globals;
+        this.initializer = adopt(initializer);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (initializer != child) super.replaceChild(child, replacement);
+        initializer = (ExprNode) replacement;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        if (slot < 0) {
+            globals.define(name, initializer.execute(frame));
+        } else if (numbers) {
+            try {
+                frame.setDouble(slot, initializer.executeDouble(frame));
+            } catch (UnexpectedResult e) {
+                numbers = false;
+                frame.set(slot, e.result);
+            }
+        } else {
+            frame.set(slot, initializer.execute(frame));
+        }
+        return Completion.NORMAL;
+    }
+}
@@ -0,0 +1,33 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.Traversal.InterpreterUtils.Environment;
+import com.thecout.lox.Traversal.Resolver;
+
+// Variable read with the depth and slot of the Resolver, as in Interpreter.visitVariableExpr
+final class VariableNode extends ExprNode {
+    private final Token name;
+    private final int depth;
+    private final int slot;
+    private final Environment globals;
+
+    VariableNode(Token name, int depth, int slot, Environment globals) {
+        this.name = name;
+        this.depth = depth;
+        this.slot = slot;
+        this.globals = globals;
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        if (depth >= 0) return Frame.get(frame, depth, slot, name, globals);
+        if (depth == Resolver.GLOBAL) return globals.get(name);
+        return Frame.get(frame, name, globals);
+    }
+
+    @Override
+    public double executeDouble(Frame frame) throws UnexpectedResult {
+        if (depth >= 0) return Frame.getDouble(frame, depth, slot, name, globals);
+        return super.executeDouble(frame);
+    }
+}
@@ -0,0 +1,51 @@
+package com.thecout.lox.Nodes;
+
+import com.thecout.lox.Traversal.InterpreterUtils.Completion;
+
+final class WhileNode extends StmtNode {
+    private ExprNode condition;
+    private final StmtNode body;
+    // null unless the loop is a for loop with an increment
+    private ExprNode increment;
+
+    WhileNode(ExprNode condition, StmtNode body, ExprNode increment) {
+        this.condition = adopt(condition);
+        this.body = adopt(body);
+        this.increment = adopt(increment);
+    }
+
+    @Override
+    void replaceChild(Node child, Node replacement) {
+        if (condition == child) {
+            condition = (ExprNode) replacement;
+        } else if (increment == child) {
+            increment = (ExprNode) replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+
+    @Override
+    public Object execute(Frame frame) {
+        // a body block no closure can keep gets one frame, cleared for every iteration
+        BlockNode block = body instanceof BlockNode && ((BlockNode) body).reusable() ? (BlockNode) body : null;
+        Frame scope = null;
+        while ((Boolean) condition.execute(frame)) {
+            Object completion;
+            if (block != null) {
+                if (scope == null) {
+                    scope = new Frame(frame, block.names);
+                } else {
+                    scope.clear();
+                }
+                completion = block.executeIn(scope);
+            } else {
+                completion = body.execute(frame);
+            }
+            if (completion == Completion.BREAK) break;
+            if (completion != Completion.NORMAL && completion != Completion.CONTINUE) return completion;
+            if (increment != null) increment.executeVoid(frame);
+        }
+        return Completion.NORMAL;
+    }
+}
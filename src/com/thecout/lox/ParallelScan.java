@@ -0,0 +1,123 @@
+package com.thecout.lox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/*
+ * Scans a source in chunks on a fork join pool.
+ *
+ * Chunks always start right after a line feed. Neither strings nor comments can
+ * span a line in Lox, so no token crosses such a boundary. Line numbers are fixed
+ * up front from the line feeds counted in each chunk. Every chunk interns into its
+ * own SymbolTable; the tables are merged in chunk order, so symbol ids come out
+ * exactly as a sequential scan would assign them.
+ */
+final class ParallelScan {
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;
+
+    private final CharSequence source;
+    private final SymbolTable symbols;
+    private final List<ScanError> errors;
+    private final ForkJoinPool pool;
+
+    ParallelScan(CharSequence source, SymbolTable symbols, List<ScanError> errors, ForkJoinPool pool) {
+        this.source = source;
+        this.symbols = symbols;
+        this.errors = errors;
+        this.pool = pool;
+    }
+
+    List<Token> scan() {
+        int[] bounds = chunkBounds();
+        int chunks = bounds.length - 1;
+
+        int[] newlines = new int[chunks];
+        forEachChunk(chunks, c -> newlines[c] = countNewlines(bounds[c], bounds[c + 1]));
+        int[] firstLine = new int[chunks];
+        for (int c = 1; c < chunks; c++) {
+            firstLine[c] = firstLine[c - 1] + newlines[c - 1];
+        }
+
+        TokenBuffer[] buffers = new TokenBuffer[chunks];
+        SymbolTable[] chunkSymbols = new SymbolTable[chunks];
+        List<List<ScanError>> chunkErrors = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            chunkErrors.add(new ArrayList<>());
+        }
+        forEachChunk(chunks, c -> {
+            chunkSymbols[c] = new SymbolTable();
+            buffers[c] = new TokenBuffer(source, chunkSymbols[c]);
+            new Lexer(source, bounds[c], bounds[c + 1], firstLine[c], chunkSymbols[c], chunkErrors.get(c)).scanInto(buffers[c]);
+        });
+        chunkErrors.forEach(errors::addAll);
+
+        int[][] remap = new int[chunks][];
+        int[] offsets = new int[chunks + 1];
+        int eofLine = 0;
+        for (int c = 0; c < chunks; c++) {
+            remap[c] = new int[chunkSymbols[c].size()];
+            for (int id = 0; id < remap[c].length; id++) {
+                remap[c][id] = symbols.intern(chunkSymbols[c].name(id));
+            }
+            // every chunk ends with its own EOF token which is dropped while stitching
+            int last = buffers[c].size() - 1;
+            offsets[c + 1] = offsets[c] + last;
+            eofLine = Math.max(eofLine, buffers[c].line(last));
+        }
+
+        Token[] tokens = new Token[offsets[chunks] + 1];
+        forEachChunk(chunks, c -> {
+            for (int i = 0; i < offsets[c + 1] - offsets[c]; i++) {
+                tokens[offsets[c] + i] = buffers[c].token(i, remap[c], symbols);
+            }
+        });
+        tokens[offsets[chunks]] = new Token(TokenType.EOF, "", "", eofLine);
+        return Arrays.asList(tokens);
+    }
+
+    private int[] chunkBounds() {
+        int length = source.length();
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, length / MIN_CHUNK_LENGTH));
+        int[] bounds = new int[chunks + 1];
+        int count = 1;
+        for (int c = 1; c < chunks; c++) {
+            int bound = (int) ((long) length * c / chunks);
+            bound = Math.max(bound, bounds[count - 1]);
+            while (bound < length && source.charAt(bound - 1) != '\n') {
+                bound++;
+            }
+            if (bound > bounds[count - 1] && bound < length) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = length;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private int countNewlines(int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == '\n') count++;
+        }
+        return count;
+    }
+
+    private void forEachChunk(int chunks, IntConsumer action) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(ForkJoinTask.adapt(() -> action.accept(chunk)));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -11,6 +11,10 @@ public class Assign extends Expr {
     public final Token name;
     public final Expr value;
 
+    // Set by the Resolver, see Variable
+    public int depth = -1;
+    public int slot = -1;
+
     @Override
     public String print() {
         return "(= %s %s)".formatted(name.lexeme, value.print());
@@ -15,6 +15,15 @@ public class Call extends Expr {
     public final Expr callee;
     public final List<Expr> arguments;
 
+    // Inline cache of the Interpreter for a callee that is a global: the callable, its arity and
+    // the version of the globals it was read at. -1 while the cache is empty.
+    public Object cachedCallee;
+    public int cachedArity;
+    public int cachedVersion = -1;
+
+    // Set by the Resolver: the call is the value of a return in a function
+    public boolean tail;
+
     @Override
     public String print() {
         String args = arguments.stream().map(Expr::print).collect(Collectors.joining(" "));
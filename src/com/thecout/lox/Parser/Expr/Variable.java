@@ -10,6 +10,11 @@ public class Variable extends Expr {
 
     public final Token name;
 
+    // Set by the Resolver: number of scopes between the reference and the declaration, and its slot there.
+    // Negative depths are looked up by name.
+    public int depth = -1;
+    public int slot = -1;
+
     @Override
     public String print() {
         return name.lexeme;
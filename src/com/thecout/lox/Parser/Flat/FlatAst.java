@@ -0,0 +1,476 @@
+package com.thecout.lox.Parser.Flat;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+import com.thecout.lox.Token;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * A whole program in a few arrays instead of one object per node. A node is an
+ * index; its kind and up to three operands live in parallel arrays. An operand is
+ * a node index, an index into the token or constant table, or the start and length
+ * of a run in the lists array for children of variable count. -1 stands for null.
+ * Children are stored before their parents. FlatAstFormat writes the arrays as they are.
+ *
+ *   kind               a               b                c
+ *   ASSIGN             name token      value
+ *   BINARY, LOGICAL    left            operator token   right
+ *   CALL               callee          argument list    argument count
+ *   GROUPING           expression
+ *   LITERAL            constant
+ *   UNARY              operator token  right
+ *   VARIABLE           name token
+ *   BLOCK                              statement list   statement count
+ *   EXPRESSION         expression
+ *   FUNCTION           name token      parameter list   parameter count, followed by the body count and body
+ *   IF                 condition       then branch      else branch
+ *   PRINT              expression
+ *   RETURN             value
+ *   VAR                name token      initializer
+ *   WHILE              condition       body             increment
+ */
+public class FlatAst {
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final int NULL = -1;
+
+    // Node and list arrays, views of the arrays of the Builder or of a mapped FlatAstFormat file
+    ByteBuffer kinds;
+    IntBuffer a;
+    IntBuffer b;
+    IntBuffer c;
+    int size;
+
+    IntBuffer lists;
+    int listSize;
+
+    // Tokens and constants of a decoded program are created on first use, see tokenAt and constantAt
+    Token[] tokens;
+    int tokenCount;
+
+    Object[] constants;
+    int constantCount;
+
+    // Where tokens and constants of a decoded program are read from, null for a built one
+    FlatAstFormat.Records records;
+
+    int rootStart;
+    int rootCount;
+
+    FlatAst() {
+    }
+
+    public static FlatAst of(List<Stmt> statements) {
+        FlatAst ast = new FlatAst();
+        Builder builder = ast.new Builder();
+        int[] roots = builder.statements(statements);
+        ast.rootStart = builder.list(roots);
+        ast.rootCount = roots.length;
+        builder.finish();
+        return ast;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int rootCount() {
+        return rootCount;
+    }
+
+    public int root(int index) {
+        return lists.get(rootStart + index);
+    }
+
+    public NodeKind kind(int node) {
+        return KINDS[kinds.get(node)];
+    }
+
+    public <R> R accept(int node, FlatVisitor<R> visitor) {
+        switch (kind(node)) {
+            case ASSIGN: return visitor.visitAssignExpr(node);
+            case BINARY: return visitor.visitBinaryExpr(node);
+            case CALL: return visitor.visitCallExpr(node);
+            case GROUPING: return visitor.visitGroupingExpr(node);
+            case LITERAL: return visitor.visitLiteralExpr(node);
+            case LOGICAL: return visitor.visitLogicalExpr(node);
+            case UNARY: return visitor.visitUnaryExpr(node);
+            case VARIABLE: return visitor.visitVariableExpr(node);
+            case BLOCK: return visitor.visitBlockStmt(node);
+            case EXPRESSION: return visitor.visitExpressionStmt(node);
+            case FUNCTION: return visitor.visitFunctionStmt(node);
+            case IF: return visitor.visitIfStmt(node);
+            case PRINT: return visitor.visitPrintStmt(node);
+            case RETURN: return visitor.visitReturnStmt(node);
+            case VAR: return visitor.visitVarStmt(node);
+            default: return visitor.visitWhileStmt(node);
+        }
+    }
+
+    // Name of an Assign, Variable, Function or Var, operator of a Binary, Logical or Unary
+    public Token token(int node) {
+        switch (kind(node)) {
+            case BINARY:
+            case LOGICAL:
+                return tokenAt(b.get(node));
+            default:
+                return tokenAt(a.get(node));
+        }
+    }
+
+    public int left(int node) {
+        return a.get(node);
+    }
+
+    public int right(int node) {
+        return kind(node) == NodeKind.UNARY ? b.get(node) : c.get(node);
+    }
+
+    // Value of an Assign or Return
+    public int value(int node) {
+        return kind(node) == NodeKind.ASSIGN ? b.get(node) : a.get(node);
+    }
+
+    // Expression of a Grouping, Expression or Print
+    public int expression(int node) {
+        return a.get(node);
+    }
+
+    public Object literal(int node) {
+        return constantAt(a.get(node));
+    }
+
+    public int initializer(int node) {
+        return b.get(node);
+    }
+
+    public int condition(int node) {
+        return a.get(node);
+    }
+
+    public int thenBranch(int node) {
+        return b.get(node);
+    }
+
+    public int elseBranch(int node) {
+        return c.get(node);
+    }
+
+    // Body of a While
+    public int body(int node) {
+        return b.get(node);
+    }
+
+    public int increment(int node) {
+        return c.get(node);
+    }
+
+    public int callee(int node) {
+        return a.get(node);
+    }
+
+    public int argumentCount(int node) {
+        return c.get(node);
+    }
+
+    public int argument(int node, int index) {
+        return lists.get(b.get(node) + index);
+    }
+
+    public int parameterCount(int node) {
+        return c.get(node);
+    }
+
+    public Token parameter(int node, int index) {
+        return tokenAt(lists.get(b.get(node) + index));
+    }
+
+    // Statements of a Block or the body of a Function
+    public int statementCount(int node) {
+        return kind(node) == NodeKind.FUNCTION ? lists.get(b.get(node) + c.get(node)) : c.get(node);
+    }
+
+    public int statement(int node, int index) {
+        if (kind(node) == NodeKind.FUNCTION) return lists.get(b.get(node) + c.get(node) + 1 + index);
+        return lists.get(b.get(node) + index);
+    }
+
+    public List<Stmt> toStatements() {
+        List<Stmt> statements = new ArrayList<>(rootCount);
+        for (int i = 0; i < rootCount; i++) {
+            statements.add(toStmt(root(i)));
+        }
+        return statements;
+    }
+
+    public Stmt toStmt(int node) {
+        if (node == NULL) return null;
+        switch (kind(node)) {
+            case BLOCK:
+                return new Block(toStmts(node));
+            case EXPRESSION:
+                return new Expression(toExpr(expression(node)));
+            case FUNCTION: {
+                List<Token> parameters = new ArrayList<>(parameterCount(node));
+                for (int i = 0; i < parameterCount(node); i++) {
+                    parameters.add(parameter(node, i));
+                }
+                return new Function(token(node), parameters, toStmts(node));
+            }
+            case IF:
+                return new If(toExpr(condition(node)), toStmt(thenBranch(node)), toStmt(elseBranch(node)));
+            case PRINT:
+                return new Print(toExpr(expression(node)));
+            case RETURN:
+                return new Return(toExpr(value(node)));
+            case VAR:
+                return new Var(token(node), toExpr(initializer(node)));
+            case WHILE:
+                return new While(toExpr(condition(node)), toStmt(body(node)), toExpr(increment(node)));
+            default:
+                throw new IllegalArgumentException("Node " + node + " is the expression " + kind(node));
+        }
+    }
+
+    public Expr toExpr(int node) {
+        if (node == NULL) return null;
+        switch (kind(node)) {
+            case ASSIGN:
+                return new Assign(token(node), toExpr(value(node)));
+            case BINARY:
+                return new Binary(toExpr(left(node)), token(node), toExpr(right(node)));
+            case CALL: {
+                List<Expr> arguments = new ArrayList<>(argumentCount(node));
+                for (int i = 0; i < argumentCount(node); i++) {
+                    arguments.add(toExpr(argument(node, i)));
+                }
+                return new Call(toExpr(callee(node)), arguments);
+            }
+            case GROUPING:
+                return new Grouping(toExpr(expression(node)));
+            case LITERAL:
+                return new Literal(literal(node));
+            case LOGICAL:
+                return new Logical(toExpr(left(node)), token(node), toExpr(right(node)));
+            case UNARY:
+                return new Unary(token(node), toExpr(right(node)));
+            case VARIABLE:
+                return new Variable(token(node));
+            default:
+                throw new IllegalArgumentException("Node " + node + " is the statement " + kind(node));
+        }
+    }
+
+    private List<Stmt> toStmts(int node) {
+        List<Stmt> statements = new ArrayList<>(statementCount(node));
+        for (int i = 0; i < statementCount(node); i++) {
+            statements.add(toStmt(statement(node, i)));
+        }
+        return statements;
+    }
+
+    Token tokenAt(int index) {
+        if (index == NULL) return null;
+        Token token = tokens[index];
+        if (token == null) tokens[index] = token = records.token(index);
+        return token;
+    }
+
+    Object constantAt(int index) {
+        Object value = constants[index];
+        // a nil constant is read again every time, which costs as little as remembering it
+        if (value == null && records != null) constants[index] = value = records.constant(index);
+        return value;
+    }
+
+    // Appends the nodes of an object tree, children first.
+    private class Builder implements ExprVisitor<Integer>, StmtVisitor<Integer> {
+        private byte[] kinds = new byte[64];
+        private int[] a = new int[64];
+        private int[] b = new int[64];
+        private int[] c = new int[64];
+        private int[] lists = new int[64];
+
+        Builder() {
+            tokens = new Token[64];
+            constants = new Object[16];
+        }
+
+        // Hands the arrays to the FlatAst, the Builder is not used after
+        void finish() {
+            FlatAst.this.kinds = ByteBuffer.wrap(kinds, 0, size);
+            FlatAst.this.a = IntBuffer.wrap(a, 0, size);
+            FlatAst.this.b = IntBuffer.wrap(b, 0, size);
+            FlatAst.this.c = IntBuffer.wrap(c, 0, size);
+            FlatAst.this.lists = IntBuffer.wrap(lists, 0, listSize);
+        }
+
+        private int node(NodeKind kind, int first, int second, int third) {
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                a = Arrays.copyOf(a, capacity);
+                b = Arrays.copyOf(b, capacity);
+                c = Arrays.copyOf(c, capacity);
+            }
+            kinds[size] = (byte) kind.ordinal();
+            a[size] = first;
+            b[size] = second;
+            c[size] = third;
+            return size++;
+        }
+
+        private int list(int... items) {
+            if (listSize + items.length > lists.length) {
+                lists = Arrays.copyOf(lists, Math.max(lists.length * 2, listSize + items.length));
+            }
+            System.arraycopy(items, 0, lists, listSize, items.length);
+            int start = listSize;
+            listSize += items.length;
+            return start;
+        }
+
+        private int addToken(Token token) {
+            if (token == null) return NULL;
+            if (tokenCount == tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokenCount * 2);
+            }
+            tokens[tokenCount] = token;
+            return tokenCount++;
+        }
+
+        private int constant(Object value) {
+            if (constantCount == constants.length) {
+                constants = Arrays.copyOf(constants, constantCount * 2);
+            }
+            constants[constantCount] = value;
+            return constantCount++;
+        }
+
+        int[] statements(List<Stmt> statements) {
+            int[] nodes = new int[statements.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = stmt(statements.get(i));
+            }
+            return nodes;
+        }
+
+        private int stmt(Stmt stmt) {
+            return stmt == null ? NULL : stmt.accept(this);
+        }
+
+        private int expr(Expr expr) {
+            return expr == null ? NULL : expr.accept(this);
+        }
+
+        @Override
+        public Integer visitAssignExpr(Assign expr) {
+            int value = expr(expr.value);
+            return node(NodeKind.ASSIGN, addToken(expr.name), value, NULL);
+        }
+
+        @Override
+        public Integer visitBinaryExpr(Binary expr) {
+            int left = expr(expr.left);
+            int right = expr(expr.right);
+            return node(NodeKind.BINARY, left, addToken(expr.operator), right);
+        }
+
+        @Override
+        public Integer visitCallExpr(Call expr) {
+            int callee = expr(expr.callee);
+            int[] arguments = new int[expr.arguments.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = expr(expr.arguments.get(i));
+            }
+            return node(NodeKind.CALL, callee, list(arguments), arguments.length);
+        }
+
+        @Override
+        public Integer visitGroupingExpr(Grouping expr) {
+            return node(NodeKind.GROUPING, expr(expr.expression), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitLiteralExpr(Literal expr) {
+            return node(NodeKind.LITERAL, constant(expr.value), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitLogicalExpr(Logical expr) {
+            int left = expr(expr.left);
+            int right = expr(expr.right);
+            return node(NodeKind.LOGICAL, left, addToken(expr.operator), right);
+        }
+
+        @Override
+        public Integer visitUnaryExpr(Unary expr) {
+            return node(NodeKind.UNARY, addToken(expr.operator), expr(expr.right), NULL);
+        }
+
+        @Override
+        public Integer visitVariableExpr(Variable expr) {
+            return node(NodeKind.VARIABLE, addToken(expr.name), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitBlockStmt(Block stmt) {
+            int[] statements = statements(stmt.statements);
+            return node(NodeKind.BLOCK, NULL, list(statements), statements.length);
+        }
+
+        @Override
+        public Integer visitExpressionStmt(Expression stmt) {
+            return node(NodeKind.EXPRESSION, expr(stmt.expression), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitFunctionStmt(Function stmt) {
+            int[] body = statements(stmt.body);
+            int[] header = new int[stmt.parameters.size() + 1];
+            for (int i = 0; i < stmt.parameters.size(); i++) {
+                header[i] = addToken(stmt.parameters.get(i));
+            }
+            header[header.length - 1] = body.length;
+            int start = list(header);
+            list(body);
+            return node(NodeKind.FUNCTION, addToken(stmt.name), start, stmt.parameters.size());
+        }
+
+        @Override
+        public Integer visitIfStmt(If stmt) {
+            int condition = expr(stmt.condition);
+            int thenBranch = stmt(stmt.thenBranch);
+            int elseBranch = stmt(stmt.elseBranch);
+            return node(NodeKind.IF, condition, thenBranch, elseBranch);
+        }
+
+        @Override
+        public Integer visitPrintStmt(Print stmt) {
+            return node(NodeKind.PRINT, expr(stmt.expression), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitReturnStmt(Return stmt) {
+            return node(NodeKind.RETURN, expr(stmt.value), NULL, NULL);
+        }
+
+        @Override
+        public Integer visitVarStmt(Var stmt) {
+            int initializer = expr(stmt.initializer);
+            return node(NodeKind.VAR, addToken(stmt.name), initializer, NULL);
+        }
+
+        @Override
+        public Integer visitWhileStmt(While stmt) {
+            int condition = expr(stmt.condition);
+            int body = stmt(stmt.body);
+            int increment = expr(stmt.increment);
+            return node(NodeKind.WHILE, condition, body, increment);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.thecout.lox.Parser.Flat;
+
+import com.thecout.lox.Token;
+import com.thecout.lox.TokenType;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Binary form of a FlatAst. After a header with the array lengths follow the
+ * strings used by tokens and constants with a table of their offsets, the node
+ * and list arrays as they are in memory, then the tokens and the constants as
+ * records of fixed size. Decoding copies nothing: the node and list arrays of
+ * the FlatAst are views of the buffer, so processes mapping the same file share
+ * them through the page cache, and a token, constant or string becomes an
+ * object only when it is first used, in the process using it. Decoding never
+ * touches the Scanner or Parser.
+ */
+public final class FlatAstFormat {
+    public static final int VERSION = 2;
+    private static final int MAGIC = 0x4C4F5843; // "LOXC"
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int HEADER_BYTES = 9 * 4;
+    // Type, line, symbol, lexeme and literal
+    private static final int TOKEN_BYTES = 1 + 4 + 4 + 4 + 9;
+    // Tag and an eight byte payload, unused payload bytes are zero
+    private static final int LITERAL_BYTES = 9;
+
+    // Literal tags
+    private static final byte NULL_LITERAL = 0;
+    private static final byte NUMBER_LITERAL = 1;
+    private static final byte STRING_LITERAL = 2;
+    private static final byte TRUE_LITERAL = 3;
+    private static final byte FALSE_LITERAL = 4;
+    // Token literal that is the lexeme itself, as for keywords, punctuation and identifiers
+    private static final byte LEXEME_LITERAL = 5;
+
+    private FlatAstFormat() {
+    }
+
+    public static ByteBuffer encode(FlatAst ast) {
+        List<byte[]> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        int stringBytes = 0;
+        for (int i = 0; i < ast.tokenCount; i++) {
+            Token token = ast.tokenAt(i);
+            stringBytes += string(token.lexeme, strings, stringIds);
+            if (token.literal instanceof String && !token.literal.equals(token.lexeme)) {
+                stringBytes += string((String) token.literal, strings, stringIds);
+            }
+        }
+        for (int i = 0; i < ast.constantCount; i++) {
+            Object constant = ast.constantAt(i);
+            if (constant instanceof String) stringBytes += string((String) constant, strings, stringIds);
+        }
+
+        int length = HEADER_BYTES + (strings.size() + 1) * 4 + stringBytes
+                + ast.size * 13 + ast.listSize * 4
+                + ast.tokenCount * TOKEN_BYTES + ast.constantCount * LITERAL_BYTES;
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putInt(strings.size()).putInt(ast.size).putInt(ast.listSize).putInt(ast.tokenCount).putInt(ast.constantCount);
+        out.putInt(ast.rootStart).putInt(ast.rootCount);
+        int offset = 0;
+        for (byte[] string : strings) {
+            out.putInt(offset);
+            offset += string.length;
+        }
+        out.putInt(offset);
+        for (byte[] string : strings) {
+            out.put(string);
+        }
+        out.put(ast.kinds.duplicate().position(0).limit(ast.size));
+        IntBuffer ints = out.asIntBuffer();
+        ints.put(ast.a.duplicate().position(0).limit(ast.size));
+        ints.put(ast.b.duplicate().position(0).limit(ast.size));
+        ints.put(ast.c.duplicate().position(0).limit(ast.size));
+        ints.put(ast.lists.duplicate().position(0).limit(ast.listSize));
+        out.position(out.position() + ints.position() * 4);
+        for (int i = 0; i < ast.tokenCount; i++) {
+            Token token = ast.tokenAt(i);
+            out.put((byte) token.type.ordinal()).putInt(token.line).putInt(token.symbol).putInt(stringIds.get(token.lexeme));
+            if (token.literal != null && token.literal.equals(token.lexeme)) {
+                out.put(LEXEME_LITERAL).putLong(0);
+            } else {
+                literal(out, token.literal, stringIds);
+            }
+        }
+        for (int i = 0; i < ast.constantCount; i++) {
+            literal(out, ast.constantAt(i), stringIds);
+        }
+        return out.flip();
+    }
+
+    // Reads a program written by encode, starting at the position of the buffer. The
+    // FlatAst keeps using the buffer, which must not change while the program is in use.
+    public static FlatAst decode(ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a flat AST of version " + VERSION);
+        }
+        int stringCount = in.getInt();
+        FlatAst ast = new FlatAst();
+        ast.size = in.getInt();
+        ast.listSize = in.getInt();
+        ast.tokenCount = in.getInt();
+        ast.constantCount = in.getInt();
+        ast.rootStart = in.getInt();
+        ast.rootCount = in.getInt();
+
+        IntBuffer stringOffsets = in.slice(in.position(), (stringCount + 1) * 4).asIntBuffer();
+        int strings = in.position() + (stringCount + 1) * 4;
+        int kinds = strings + stringOffsets.get(stringCount);
+        int a = kinds + ast.size;
+        int lists = a + ast.size * 3 * 4;
+        int tokens = lists + ast.listSize * 4;
+        int constants = tokens + ast.tokenCount * TOKEN_BYTES;
+        int end = constants + ast.constantCount * LITERAL_BYTES;
+        if (end > in.limit()) throw new IllegalArgumentException("Truncated flat AST");
+
+        ast.kinds = in.slice(kinds, ast.size);
+        ast.a = in.slice(a, ast.size * 4).asIntBuffer();
+        ast.b = in.slice(a + ast.size * 4, ast.size * 4).asIntBuffer();
+        ast.c = in.slice(a + ast.size * 8, ast.size * 4).asIntBuffer();
+        ast.lists = in.slice(lists, ast.listSize * 4).asIntBuffer();
+        ast.tokens = new Token[ast.tokenCount];
+        ast.constants = new Object[ast.constantCount];
+        ast.records = new Records(stringOffsets, in.slice(strings, kinds - strings),
+                in.slice(tokens, constants - tokens), in.slice(constants, end - constants));
+        in.position(end);
+        return ast;
+    }
+
+    private static int string(String string, List<byte[]> strings, Map<String, Integer> ids) {
+        if (ids.containsKey(string)) return 0;
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ids.put(string, strings.size());
+        strings.add(bytes);
+        return bytes.length;
+    }
+
+    private static void literal(ByteBuffer out, Object value, Map<String, Integer> stringIds) {
+        if (value == null) {
+            out.put(NULL_LITERAL).putLong(0);
+        } else if (value instanceof Double) {
+            out.put(NUMBER_LITERAL).putDouble((Double) value);
+        } else if (value instanceof String) {
+            out.put(STRING_LITERAL).putLong(stringIds.get(value));
+        } else if (value instanceof Boolean) {
+            out.put((Boolean) value ? TRUE_LITERAL : FALSE_LITERAL).putLong(0);
+        } else {
+            throw new IllegalArgumentException("Literal " + value + " of " + value.getClass() + " can not be encoded.");
+        }
+    }
+
+    // Token and constant records of a decoded program, read one at a time
+    static final class Records {
+        private final IntBuffer stringOffsets;
+        private final ByteBuffer strings;
+        private final ByteBuffer tokens;
+        private final ByteBuffer constants;
+        private final String[] decoded;
+
+        Records(IntBuffer stringOffsets, ByteBuffer strings, ByteBuffer tokens, ByteBuffer constants) {
+            this.stringOffsets = stringOffsets;
+            this.strings = strings;
+            this.tokens = tokens;
+            this.constants = constants;
+            this.decoded = new String[stringOffsets.limit() - 1];
+        }
+
+        Token token(int index) {
+            int at = index * TOKEN_BYTES;
+            TokenType type = TYPES[tokens.get(at)];
+            String lexeme = string(tokens.getInt(at + 9));
+            byte tag = tokens.get(at + 13);
+            Object literal = tag == LEXEME_LITERAL ? lexeme : literal(tag, tokens.getLong(at + 14));
+            return new Token(type, lexeme, literal, tokens.getInt(at + 1), tokens.getInt(at + 5));
+        }
+
+        Object constant(int index) {
+            int at = index * LITERAL_BYTES;
+            return literal(constants.get(at), constants.getLong(at + 1));
+        }
+
+        private Object literal(byte tag, long payload) {
+            switch (tag) {
+                case NULL_LITERAL:
+                    return null;
+                case NUMBER_LITERAL:
+                    return Double.longBitsToDouble(payload);
+                case STRING_LITERAL:
+                    return string((int) payload);
+                case TRUE_LITERAL:
+                    return true;
+                case FALSE_LITERAL:
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Unknown literal tag " + tag);
+            }
+        }
+
+        private String string(int id) {
+            String string = decoded[id];
+            if (string == null) {
+                int start = stringOffsets.get(id);
+                byte[] bytes = new byte[stringOffsets.get(id + 1) - start];
+                strings.get(start, bytes);
+                decoded[id] = string = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return string;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.thecout.lox.Parser.Flat;
+
+// Counterpart of ExprVisitor and StmtVisitor for a FlatAst, nodes are passed as indices.
+public interface FlatVisitor<R> {
+    R visitAssignExpr(int node);
+    R visitBinaryExpr(int node);
+    R visitCallExpr(int node);
+    R visitGroupingExpr(int node);
+    R visitLiteralExpr(int node);
+    R visitLogicalExpr(int node);
+    R visitUnaryExpr(int node);
+    R visitVariableExpr(int node);
+    R visitBlockStmt(int node);
+    R visitExpressionStmt(int node);
+    R visitFunctionStmt(int node);
+    R visitIfStmt(int node);
+    R visitPrintStmt(int node);
+    R visitReturnStmt(int node);
+    R visitVarStmt(int node);
+    R visitWhileStmt(int node);
+}
@@ -0,0 +1,21 @@
+package com.thecout.lox.Parser.Flat;
+
+// One kind per Expr and Stmt class
+public enum NodeKind {
+    ASSIGN,
+    BINARY,
+    CALL,
+    GROUPING,
+    LITERAL,
+    LOGICAL,
+    UNARY,
+    VARIABLE,
+    BLOCK,
+    EXPRESSION,
+    FUNCTION,
+    IF,
+    PRINT,
+    RETURN,
+    VAR,
+    WHILE
+}
@@ -0,0 +1,343 @@
+package com.thecout.lox.Parser;
+
+import com.thecout.lox.TokenType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The rules of JLox_Grammar.md and the FIRST and FOLLOW sets computed from them.
+ * RULES is a verbatim copy of the table in the markdown file, ParserTest keeps
+ * both in sync. Terminals without a TokenType, like "class", never match a token.
+ */
+public final class Grammar {
+    public static final String[][] RULES = {
+            {"program", "declaration* EOF ;"},
+            {"declaration", "classDecl | funDecl | varDecl | statement ;"},
+            {"classDecl", "\"class\" IDENTIFIER ( \"<\" IDENTIFIER )? \"{\" function* \"}\" ;"},
+            {"funDecl", "\"fun\" function ;"},
+            {"function", "IDENTIFIER \"(\" parameters? \")\" block ;"},
+            {"parameters", "IDENTIFIER ( \",\" IDENTIFIER )* ;"},
+            {"varDecl", "\"var\" IDENTIFIER ( \"=\" expression)? \";\" ;"},
+            {"statement", "exprStmt | forStmt | ifStmt | printStmt | returnStmt | whileStmt | block ;"},
+            {"exprStmt", "expression \";\" ;"},
+            {"forStmt", "\"for\" \"(\"(varDecl | exprStmt | \";\")expression? \";\" expression? \")\" statement ;"},
+            {"ifStmt", "\"if\" \"(\" expression \")\" statement ( \"else\" statement )? ;"},
+            {"printStmt", "\"print\" expression \";\" ;"},
+            {"returnStmt", "\"return\" expression? \";\" ;"},
+            {"whileStmt", "\"while\" \"(\" expression \")\" statement ;"},
+            {"block", "\"{\" declaration* \"}\" ;"},
+            {"expression", "assignment ;"},
+            {"assignment", "IDENTIFIER \"=\" assignment | logic_or ;"},
+            {"logic_or", "logic_and ( \"or\" logic_and )* ;"},
+            {"logic_and", "equality ( \"and\" equality )* ;"},
+            {"equality", "comparison ( ( \"!=\" | \"==\" ) comparison )* ;"},
+            {"comparison", "addition ( ( \">\" | \">=\" | \"<\" | \"<=\" ) addition )* ;"},
+            {"addition", "multiplication ( ( \"-\" | \"+\" ) multiplication )* ;"},
+            {"multiplication", "unary ( ( \"/\" | \"*\" ) unary )* ;"},
+            {"unary", "( \"!\" | \"-\" ) unary | call ;"},
+            {"call", "primary (\"(\" arguments? \")\")? ;"},
+            {"arguments", "expression ( \",\" expression )* ;"},
+            {"primary", "\"true\" | \"false\" | \"nil\" | NUMBER | STRING | IDENTIFIER | \"(\" expression \")\";"},
+    };
+
+    private static final Map<String, TokenType> PUNCTUATION = Map.ofEntries(
+            Map.entry("(", TokenType.LEFT_PAREN), Map.entry(")", TokenType.RIGHT_PAREN),
+            Map.entry("{", TokenType.LEFT_BRACE), Map.entry("}", TokenType.RIGHT_BRACE),
+            Map.entry(",", TokenType.COMMA), Map.entry(".", TokenType.DOT),
+            Map.entry("-", TokenType.MINUS), Map.entry("+", TokenType.PLUS),
+            Map.entry(";", TokenType.SEMICOLON), Map.entry("/", TokenType.SLASH),
+            Map.entry("*", TokenType.STAR), Map.entry("!", TokenType.BANG),
+            Map.entry("!=", TokenType.BANG_EQUAL), Map.entry("=", TokenType.EQUAL),
+            Map.entry("==", TokenType.EQUAL_EQUAL), Map.entry(">", TokenType.GREATER),
+            Map.entry(">=", TokenType.GREATER_EQUAL), Map.entry("<", TokenType.LESS),
+            Map.entry("<=", TokenType.LESS_EQUAL)
+    );
+
+    private static final Map<String, Node> BODIES = new LinkedHashMap<>();
+    private static final Map<String, EnumSet<TokenType>> FIRST = new HashMap<>();
+    private static final Map<String, EnumSet<TokenType>> FOLLOW = new HashMap<>();
+    private static final Map<String, Boolean> NULLABLE = new HashMap<>();
+
+    static {
+        for (String[] rule : RULES) {
+            BODIES.put(rule[0], new RuleParser(rule[1]).parse());
+            FIRST.put(rule[0], EnumSet.noneOf(TokenType.class));
+            FOLLOW.put(rule[0], EnumSet.noneOf(TokenType.class));
+            NULLABLE.put(rule[0], false);
+        }
+        computeFirst();
+        computeFollow();
+    }
+
+    private Grammar() {
+    }
+
+    public static EnumSet<TokenType> first(String nonTerminal) {
+        return EnumSet.copyOf(sets(FIRST, nonTerminal));
+    }
+
+    public static EnumSet<TokenType> follow(String nonTerminal) {
+        return EnumSet.copyOf(sets(FOLLOW, nonTerminal));
+    }
+
+    public static boolean nullable(String nonTerminal) {
+        sets(FIRST, nonTerminal);
+        return NULLABLE.get(nonTerminal);
+    }
+
+    private static EnumSet<TokenType> sets(Map<String, EnumSet<TokenType>> sets, String nonTerminal) {
+        EnumSet<TokenType> set = sets.get(nonTerminal);
+        if (set == null) {
+            throw new IllegalArgumentException("Unknown non terminal " + nonTerminal);
+        }
+        return set;
+    }
+
+    private static void computeFirst() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, Node> rule : BODIES.entrySet()) {
+                Node body = rule.getValue();
+                changed |= FIRST.get(rule.getKey()).addAll(body.first());
+                if (!NULLABLE.get(rule.getKey()) && body.nullable()) {
+                    NULLABLE.put(rule.getKey(), true);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private static void computeFollow() {
+        FOLLOW.get(RULES[0][0]).add(TokenType.EOF);
+        boolean[] changed = {true};
+        while (changed[0]) {
+            changed[0] = false;
+            for (Map.Entry<String, Node> rule : BODIES.entrySet()) {
+                rule.getValue().follow(FOLLOW.get(rule.getKey()), changed);
+            }
+        }
+    }
+
+    private abstract static class Node {
+        abstract boolean nullable();
+
+        abstract EnumSet<TokenType> first();
+
+        // Adds trailer, the tokens that can follow this node, to the FOLLOW sets of the non terminals in it.
+        abstract void follow(EnumSet<TokenType> trailer, boolean[] changed);
+    }
+
+    private static class Terminal extends Node {
+        private final TokenType type;
+
+        Terminal(TokenType type) {
+            this.type = type;
+        }
+
+        boolean nullable() {
+            return false;
+        }
+
+        EnumSet<TokenType> first() {
+            return type == null ? EnumSet.noneOf(TokenType.class) : EnumSet.of(type);
+        }
+
+        void follow(EnumSet<TokenType> trailer, boolean[] changed) {
+        }
+    }
+
+    private static class NonTerminal extends Node {
+        private final String name;
+
+        NonTerminal(String name) {
+            this.name = name;
+        }
+
+        boolean nullable() {
+            return NULLABLE.get(name);
+        }
+
+        EnumSet<TokenType> first() {
+            return sets(FIRST, name);
+        }
+
+        void follow(EnumSet<TokenType> trailer, boolean[] changed) {
+            changed[0] |= sets(FOLLOW, name).addAll(trailer);
+        }
+    }
+
+    private static class Sequence extends Node {
+        private final List<Node> items;
+
+        Sequence(List<Node> items) {
+            this.items = items;
+        }
+
+        boolean nullable() {
+            return items.stream().allMatch(Node::nullable);
+        }
+
+        EnumSet<TokenType> first() {
+            EnumSet<TokenType> first = EnumSet.noneOf(TokenType.class);
+            for (Node item : items) {
+                first.addAll(item.first());
+                if (!item.nullable()) break;
+            }
+            return first;
+        }
+
+        void follow(EnumSet<TokenType> trailer, boolean[] changed) {
+            EnumSet<TokenType> next = EnumSet.copyOf(trailer);
+            for (int i = items.size() - 1; i >= 0; i--) {
+                Node item = items.get(i);
+                item.follow(next, changed);
+                if (!item.nullable()) next = EnumSet.noneOf(TokenType.class);
+                next.addAll(item.first());
+            }
+        }
+    }
+
+    private static class Alternatives extends Node {
+        private final List<Node> options;
+
+        Alternatives(List<Node> options) {
+            this.options = options;
+        }
+
+        boolean nullable() {
+            return options.stream().anyMatch(Node::nullable);
+        }
+
+        EnumSet<TokenType> first() {
+            EnumSet<TokenType> first = EnumSet.noneOf(TokenType.class);
+            options.forEach(option -> first.addAll(option.first()));
+            return first;
+        }
+
+        void follow(EnumSet<TokenType> trailer, boolean[] changed) {
+            options.forEach(option -> option.follow(trailer, changed));
+        }
+    }
+
+    // x? and x*
+    private static class Optional extends Node {
+        private final Node item;
+        private final boolean repeated;
+
+        Optional(Node item, boolean repeated) {
+            this.item = item;
+            this.repeated = repeated;
+        }
+
+        boolean nullable() {
+            return true;
+        }
+
+        EnumSet<TokenType> first() {
+            return item.first();
+        }
+
+        void follow(EnumSet<TokenType> trailer, boolean[] changed) {
+            EnumSet<TokenType> next = EnumSet.copyOf(trailer);
+            if (repeated) next.addAll(item.first());
+            item.follow(next, changed);
+        }
+    }
+
+    // Recursive descent parser for the EBNF notation of the rule bodies.
+    private static class RuleParser {
+        private final String body;
+        private int position = 0;
+
+        RuleParser(String body) {
+            this.body = body;
+        }
+
+        Node parse() {
+            Node node = alternatives();
+            skipSpaces();
+            if (position >= body.length() || body.charAt(position) != ';') {
+                throw new IllegalStateException("Expected ';' at " + position + " in " + body);
+            }
+            return node;
+        }
+
+        private Node alternatives() {
+            List<Node> options = new ArrayList<>();
+            options.add(sequence());
+            while (peek() == '|') {
+                position++;
+                options.add(sequence());
+            }
+            return options.size() == 1 ? options.get(0) : new Alternatives(options);
+        }
+
+        private Node sequence() {
+            List<Node> items = new ArrayList<>();
+            while (peek() != '|' && peek() != ')' && peek() != ';') {
+                Node item = atom();
+                while (peek() == '*' || peek() == '?') {
+                    item = new Optional(item, body.charAt(position++) == '*');
+                }
+                items.add(item);
+            }
+            return items.size() == 1 ? items.get(0) : new Sequence(items);
+        }
+
+        private Node atom() {
+            char c = peek();
+            if (c == '(') {
+                position++;
+                Node group = alternatives();
+                if (peek() != ')') {
+                    throw new IllegalStateException("Expected ')' at " + position + " in " + body);
+                }
+                position++;
+                return group;
+            }
+            if (c == '"') {
+                int end = body.indexOf('"', position + 1);
+                String terminal = body.substring(position + 1, end);
+                position = end + 1;
+                return new Terminal(terminal(terminal));
+            }
+            int start = position;
+            while (position < body.length() && (Character.isLetter(body.charAt(position)) || body.charAt(position) == '_')) {
+                position++;
+            }
+            if (start == position) {
+                throw new IllegalStateException("Unexpected '" + c + "' at " + position + " in " + body);
+            }
+            String name = body.substring(start, position);
+            if (name.equals(name.toUpperCase())) {
+                return new Terminal(TokenType.valueOf(name));
+            }
+            return new NonTerminal(name);
+        }
+
+        private char peek() {
+            skipSpaces();
+            return position < body.length() ? body.charAt(position) : ';';
+        }
+
+        private void skipSpaces() {
+            while (position < body.length() && Character.isWhitespace(body.charAt(position))) {
+                position++;
+            }
+        }
+
+        private static TokenType terminal(String lexeme) {
+            if (PUNCTUATION.containsKey(lexeme)) return PUNCTUATION.get(lexeme);
+            for (TokenType type : TokenType.values()) {
+                if (type.name().equalsIgnoreCase(lexeme)) return type;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.thecout.lox.Parser;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+import com.thecout.lox.Token;
+import com.thecout.lox.TokenStream;
+import com.thecout.lox.TokenType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.thecout.lox.TokenType.*;
+
+/*
+ * The LL1 and PRATT modes of the Parser. Every decision looks at the next token only
+ * and is taken on the FIRST sets of the Grammar, nothing is parsed speculatively or
+ * rewound. After an error it skips to a token of the FOLLOW set of declaration.
+ * In PRATT mode expressions are left to the PrecedenceParser.
+ */
+final class LL1Parser {
+    private static final EnumSet<TokenType> FIRST_EXPRESSION = Grammar.first("expression");
+    private static final EnumSet<TokenType> FIRST_CALL = Grammar.first("call");
+    // FOLLOW(declaration) without the tokens that start an expression statement, which could be in the middle of one
+    private static final EnumSet<TokenType> SYNCHRONIZE = Grammar.follow("declaration");
+
+    static {
+        SYNCHRONIZE.removeAll(Grammar.first("exprStmt"));
+    }
+
+    private final TokenStream tokens;
+    private final PrecedenceParser expressions;
+    private final List<ParserError> errors;
+    private int blockDepth = 0;
+
+    LL1Parser(TokenStream tokens, boolean pratt, List<ParserError> errors) {
+        this.tokens = tokens;
+        this.expressions = pratt ? new PrecedenceParser(tokens) : null;
+        this.errors = errors;
+    }
+
+    List<Stmt> parse() {
+        List<Stmt> statements = new ArrayList<>();
+        while (!isAtEnd()) {
+            Stmt statement = declaration();
+            if (statement != null) statements.add(statement);
+        }
+
+        return statements;
+    }
+
+    private Expr expression() {
+        if (expressions != null) return expressions.expression();
+        return assignment();
+    }
+
+    private Stmt declaration() {
+        try {
+            if (match(FUN)) return function();
+            if (match(VAR)) return varDeclaration();
+
+            return statement();
+        } catch (Parser.ParseError e) {
+            errors.add(e.error);
+            synchronize();
+            return null;
+        }
+    }
+
+    // Panic mode: skips past the next ';' or up to a token in SYNCHRONIZE, a '}' only if it closes a block.
+    private void synchronize() {
+        if (!(blockDepth > 0 && check(RIGHT_BRACE))) advance();
+        while (!isAtEnd()) {
+            if (tokens.previousType() == SEMICOLON) return;
+            TokenType type = tokens.peekType();
+            if (SYNCHRONIZE.contains(type) && (type != RIGHT_BRACE || blockDepth > 0)) return;
+            advance();
+        }
+    }
+
+    private Stmt statement() {
+        if (match(FOR)) return forStatement();
+        if (match(IF)) return ifStatement();
+        if (match(PRINT)) return printStatement();
+        if (match(RETURN)) return returnStatement();
+        if (match(WHILE)) return whileStatement();
+        if (match(LEFT_BRACE)) return new Block(block());
+        if (FIRST_EXPRESSION.contains(tokens.peekType())) return expressionStatement();
+
+        throw error(peek(), "Expect expression.");
+    }
+
+    private Stmt forStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'for'.");
+        List<Stmt> returnStatements = new ArrayList<>();
+        if (match(VAR)) {
+            returnStatements.add(varDeclaration());
+        } else if (!match(SEMICOLON)) {
+            returnStatements.add(expressionStatement());
+        }
+        Expr condition = FIRST_EXPRESSION.contains(tokens.peekType()) ? expression() : new Literal(true);
+        consume(SEMICOLON, "Expect ';' after loop condition.");
+        Expr mutator = FIRST_EXPRESSION.contains(tokens.peekType()) ? expression() : null;
+        consume(RIGHT_PAREN, "Expect ')' after for clauses.");
+
+        returnStatements.add(new While(condition, statement(), mutator));
+        return new Block(returnStatements);
+    }
+
+    private Stmt ifStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'if'.");
+        Expr condition = expression();
+        consume(RIGHT_PAREN, "Expect ')' after if condition.");
+
+        Stmt thenBranch = statement();
+        Stmt elseBranch = null;
+        if (match(ELSE)) {
+            elseBranch = statement();
+        }
+
+        return new If(condition, thenBranch, elseBranch);
+    }
+
+    private Stmt printStatement() {
+        Expr expr = expression();
+        consume(SEMICOLON, "Expect ; at end of print statement.");
+        return new Print(expr);
+    }
+
+    private Stmt returnStatement() {
+        Expr value = FIRST_EXPRESSION.contains(tokens.peekType()) ? expression() : new Literal(null);
+        consume(SEMICOLON, "Expect semicolon at end of return statement.");
+        return new Return(value);
+    }
+
+    private Stmt varDeclaration() {
+        Token name = consumeIdentifier("Expect variable name.");
+        Expr initializer = match(EQUAL) ? expression() : new Literal(null);
+        consume(SEMICOLON, "Expect semicolon at end of declaration.");
+        return new Var(name, initializer);
+    }
+
+    private Stmt whileStatement() {
+        consume(LEFT_PAREN, "Expect ( at start of while statement.");
+        Expr expr = expression();
+        consume(RIGHT_PAREN, "Expect ) after expression.");
+        Stmt statement = statement();
+        return new While(expr, statement);
+    }
+
+    private Stmt expressionStatement() {
+        Expr expression = expression();
+        consume(SEMICOLON, "Expect semicolon at end of expression statement.");
+        return new Expression(expression);
+    }
+
+    private Function function() {
+        Token name = consumeIdentifier("Expect function name.");
+        consume(LEFT_PAREN, "Expect ( at start of function declaration.");
+        List<Token> parameters = new ArrayList<>();
+        if (!check(RIGHT_PAREN)) {
+            do {
+                parameters.add(consumeIdentifier("Expect parameter name."));
+            } while (match(COMMA));
+        }
+        consume(RIGHT_PAREN, "Expected ).");
+        consume(LEFT_BRACE, "Expected {.");
+        return new Function(name, parameters, block());
+    }
+
+    private List<Stmt> block() {
+        blockDepth++;
+        try {
+            List<Stmt> statements = new ArrayList<>();
+            while (!check(RIGHT_BRACE) && !isAtEnd()) {
+                Stmt statement = declaration();
+                if (statement != null) statements.add(statement);
+            }
+            consume(RIGHT_BRACE, "Expect '}' after block.");
+            return statements;
+        } finally {
+            blockDepth--;
+        }
+    }
+
+    // assignment -> IDENTIFIER "=" assignment | logic_or, left factored since logic_or starts with IDENTIFIER too
+    private Expr assignment() {
+        // a grouping leaves no node of its own, "(a)" would pass as a target
+        boolean grouped = check(LEFT_PAREN);
+        Expr expr = or();
+        if (match(EQUAL)) {
+            Token equals = previous();
+            Expr value = assignment();
+            if (expr instanceof Variable && !grouped) {
+                return new Assign(((Variable) expr).name, value);
+            }
+            throw error(equals, "Invalid assignment target.");
+        }
+        return expr;
+    }
+
+    private Expr or() {
+        Expr expr = and();
+        while (match(OR)) {
+            Token operator = previous();
+            expr = new Logical(expr, operator, and());
+        }
+        return expr;
+    }
+
+    private Expr and() {
+        Expr expr = equality();
+        while (match(AND)) {
+            Token operator = previous();
+            expr = new Logical(expr, operator, equality());
+        }
+        return expr;
+    }
+
+    private Expr equality() {
+        Expr expr = comparison();
+        while (match(BANG_EQUAL, EQUAL_EQUAL)) {
+            Token operator = previous();
+            expr = new Logical(expr, operator, comparison());
+        }
+        return expr;
+    }
+
+    private Expr comparison() {
+        Expr expr = addition();
+        while (match(GREATER, GREATER_EQUAL, LESS, LESS_EQUAL)) {
+            Token operator = previous();
+            expr = new Logical(expr, operator, addition());
+        }
+        return expr;
+    }
+
+    private Expr addition() {
+        Expr expr = multiplication();
+        while (match(PLUS, MINUS)) {
+            Token operator = previous();
+            expr = new Binary(expr, operator, multiplication());
+        }
+        return expr;
+    }
+
+    private Expr multiplication() {
+        Expr expr = unary();
+        while (match(STAR, SLASH)) {
+            Token operator = previous();
+            expr = new Binary(expr, operator, unary());
+        }
+        return expr;
+    }
+
+    private Expr unary() {
+        if (match(BANG, MINUS)) {
+            Token operator = previous();
+            return new Unary(operator, unary());
+        }
+        if (FIRST_CALL.contains(tokens.peekType())) return call();
+        throw error(peek(), "Expect expression.");
+    }
+
+    private Expr call() {
+        Expr expr = primary();
+        if (!match(LEFT_PAREN)) return expr;
+
+        List<Expr> arguments = new ArrayList<>();
+        if (!check(RIGHT_PAREN)) {
+            do {
+                arguments.add(expression());
+            } while (match(COMMA));
+        }
+        consume(RIGHT_PAREN, "Expected ).");
+        return new Call(expr, arguments);
+    }
+
+    private Expr primary() {
+        if (match(TRUE)) return new Literal(true);
+        if (match(FALSE)) return new Literal(false);
+        if (match(NIL)) return new Literal(null);
+        if (match(NUMBER, STRING)) return new Literal(tokens.previousLiteral());
+        if (match(IDENTIFIER)) return new Variable(previous());
+        if (match(LEFT_PAREN)) {
+            Expr expr = expression();
+            consume(RIGHT_PAREN, "Expected ')'");
+            return expr;
+        }
+
+        throw error(peek(), "Expect expression.");
+    }
+
+    private boolean match(TokenType... types) {
+        for (TokenType type : types) {
+            if (check(type)) {
+                tokens.advance();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void consume(TokenType type, String message) {
+        if (check(type)) {
+            advance();
+            return;
+        }
+
+        throw error(peek(), message);
+    }
+
+    // The only tokens the statement rules keep are names
+    private Token consumeIdentifier(String message) {
+        consume(IDENTIFIER, message);
+        return previous();
+    }
+
+    private boolean check(TokenType tokenType) {
+        if (isAtEnd()) return false;
+        return tokens.peekType() == tokenType;
+    }
+
+    private void advance() {
+        if (!isAtEnd()) tokens.advance();
+    }
+
+    private boolean isAtEnd() {
+        return tokens.peekType() == EOF;
+    }
+
+    private Token peek() {
+        return tokens.peek();
+    }
+
+    private Token previous() {
+        return tokens.previous();
+    }
+
+    private Parser.ParseError error(Token token, String message) {
+        return new Parser.ParseError(new ParserError(token, message));
+    }
+}
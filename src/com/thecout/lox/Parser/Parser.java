@@ -4,6 +4,7 @@ package com.thecout.lox.Parser;
 import com.thecout.lox.Parser.Expr.*;
 import com.thecout.lox.Parser.Stmts.*;
 import com.thecout.lox.Token;
+import com.thecout.lox.TokenStream;
 import com.thecout.lox.TokenType;
 
 import java.util.ArrayList;
@@ -12,41 +13,108 @@ import java.util.List;
 import static com.thecout.lox.TokenType.*;
 
 public class Parser {
-    private static class ParseError extends RuntimeException {
+    static class ParseError extends RuntimeException {
+        // null when thrown as lookahead by the RECURSIVE_DESCENT rules
+        final ParserError error;
+
+        ParseError() {
+            this(null);
+        }
+
+        ParseError(ParserError error) {
+            this.error = error;
+        }
     }
 
-    private final List<Token> tokens;
-    private int current = 0;
+    private final TokenStream tokens;
+    // Parses in place of the rules below in LL1 and PRATT mode
+    private final LL1Parser ll1;
+    private final List<ParserError> errors = new ArrayList<>();
+    private int blockDepth = 0;
 
     public Parser(List<Token> tokens) {
+        this(TokenStream.of(tokens));
+    }
+
+    // LL1, see ParserMode for how its language differs from RECURSIVE_DESCENT
+    public Parser(TokenStream tokens) {
+        this(tokens, ParserMode.LL1);
+    }
+
+    public Parser(List<Token> tokens, ParserMode mode) {
+        this(TokenStream.of(tokens), mode);
+    }
+
+    public Parser(TokenStream tokens, ParserMode mode) {
         this.tokens = tokens;
+        this.ll1 = mode == ParserMode.RECURSIVE_DESCENT ? null : new LL1Parser(tokens, mode == ParserMode.PRATT, errors);
     }
 
     public List<Stmt> parse() {
+        if (ll1 != null) return ll1.parse();
+
         List<Stmt> statements = new ArrayList<>();
-        try {
-            while (!isAtEnd()) {
-                statements.add(declaration());
-                //System.out.println(statements.get(statements.size()-1).print());
-            }
-        }
-        catch (ParseError e)
-        {
-            System.out.println(e.getMessage());
+        while (!isAtEnd()) {
+            Stmt statement = declaration();
+            if (statement != null) statements.add(statement);
         }
 
         return statements;
     }
 
+    // Every error of the last parse() in source order, declarations containing one are left out of its result
+    public List<ParserError> getErrors() {
+        return errors;
+    }
+
+    public boolean hadError() {
+        return !errors.isEmpty();
+    }
+
     private Expr expression() {
         return assignment();
     }
 
     private Stmt declaration() {
+        try {
             if (match(FUN)) return function();
             if (match(VAR)) return varDeclaration();
 
             return statement();
+        } catch (ParseError e) {
+            recover(e);
+            return null;
+        }
+    }
+
+    // Records the error and skips to where the next statement can start
+    private void recover(ParseError e) {
+        errors.add(e.error != null ? e.error : new ParserError(peek(), "Expect expression."));
+        synchronize();
+    }
+
+    // Panic mode: skips tokens up to the next statement boundary, keyword starting a declaration or closing brace.
+    private void synchronize() {
+        if (!(blockDepth > 0 && check(RIGHT_BRACE))) advance();
+        while (!isAtEnd()) {
+            if (tokens.previousType() == SEMICOLON) return;
+            switch (tokens.peekType()) {
+                case FUN:
+                case VAR:
+                case FOR:
+                case IF:
+                case WHILE:
+                case PRINT:
+                case RETURN:
+                    return;
+                case RIGHT_BRACE:
+                    if (blockDepth > 0) return;
+                    break;
+                default:
+                    break;
+            }
+            advance();
+        }
     }
 
     private Stmt statement() {
@@ -63,21 +131,21 @@ public class Parser {
     private Stmt forStatement() {
         consume(LEFT_PAREN,"Expected '('");
         List<Stmt> returnStatements = new ArrayList<>();
-        if(SortedTokenTypes.VAR_DECL.containsTokenType(peek().type)){
+        if(SortedTokenTypes.VAR_DECL.containsTokenType(tokens.peekType())){
             consume(VAR,"Expected 'var'");
             returnStatements.add(varDeclaration());
-        }else if(SortedTokenTypes.EXPR_STATEMENT.containsTokenType(peek().type)){
+        }else if(SortedTokenTypes.EXPR_STATEMENT.containsTokenType(tokens.peekType())){
             returnStatements.add(expressionStatement());
         }else{
             consume(SEMICOLON,"Expected ';'");
         }
         Expr condition = null;
-        if(SortedTokenTypes.EXPR.containsTokenType(peek().type)){
+        if(SortedTokenTypes.EXPR.containsTokenType(tokens.peekType())){
             condition = expression();
         }
         consume(SEMICOLON,"Expected ';'");
         Expr mutator = null;
-        if(SortedTokenTypes.EXPR.containsTokenType(peek().type)){
+        if(SortedTokenTypes.EXPR.containsTokenType(tokens.peekType())){
             mutator = expression();
         }
 
@@ -86,8 +154,7 @@ public class Parser {
             condition = new Literal(true);
         }
         consume(RIGHT_PAREN, "Expect ')'");
-        Stmt blockStmt = new Block(List.of(statement(),new Expression(mutator)));
-        Stmt whileStmt = new While(condition, blockStmt);
+        Stmt whileStmt = new While(condition, statement(), mutator);
         returnStatements.add(whileStmt);
 
         return new Block(returnStatements);
@@ -172,13 +239,22 @@ public class Parser {
     }
 
     private List<Stmt> block() {
-        List<Stmt> statements = new ArrayList<Stmt>();
-        while(!match(RIGHT_BRACE))
-        {
-            Stmt statement = statement();
-            statements.add(statement);
+        blockDepth++;
+        try {
+            List<Stmt> statements = new ArrayList<Stmt>();
+            while(!match(RIGHT_BRACE))
+            {
+                if (isAtEnd()) throw error(peek(), "Expect '}' after block.");
+                try {
+                    statements.add(statement());
+                } catch (ParseError e) {
+                    recover(e);
+                }
+            }
+            return statements;
+        } finally {
+            blockDepth--;
         }
-        return statements;
     }
 
     private Expr assignment() {
@@ -264,7 +340,7 @@ public class Parser {
                 return new Unary(operator, call());
             }
             return new Unary(operator, unary());
-        }else if(SortedTokenTypes.CALL.containsTokenType(peek().type)){
+        }else if(SortedTokenTypes.CALL.containsTokenType(tokens.peekType())){
             return call();
         }
         throw error(previous(),"Expected 'unary operator'");
@@ -286,7 +362,7 @@ public class Parser {
 
     private Expr primary() {
         if(match(TRUE)) return new Literal(true);
-        if(match(FALSE)) return new Literal(true);
+        if(match(FALSE)) return new Literal(false);
         if(match(NIL)) return new Literal(null);
         if(check(NUMBER)) return new Literal(consume(NUMBER,"Expected Number").literal);
         if(check(STRING)) return new Literal(consume(STRING,"Expected String").literal);
@@ -313,7 +389,7 @@ public class Parser {
     private boolean match(TokenType... types) {
         for (TokenType type : types) {
             if (check(type)) {
-                advance();
+                tokens.advance();
                 return true;
             }
         }
@@ -329,37 +405,39 @@ public class Parser {
 
     private boolean check(TokenType tokenType) {
         if (isAtEnd()) return false;
-        return peek().type == tokenType;
+        return tokens.peekType() == tokenType;
     }
 
     private Token advance() {
-        if (!isAtEnd()) current++;
+        if (!isAtEnd()) tokens.advance();
         return previous();
     }
 
     private boolean isAtEnd() {
-        return peek().type == EOF;
+        return tokens.peekType() == EOF;
     }
 
     private Token peek() {
-        return tokens.get(current);
+        return tokens.peek();
     }
 
     private Token previous() {
-        return tokens.get(current - 1);
+        return tokens.previous();
     }
 
     private ParseError error(Token token, String message) {
-        ParserError.error(token, message);
-        return new ParseError();
+        return new ParseError(new ParserError(token, message));
     }
 
     private void moveCounterToPrevious()
     {
-        if(current == 0)
+        try
+        {
+            tokens.rewind();
+        }
+        catch (IllegalStateException e)
         {
             throw new ParseError();
         }
-        current--;
     }
 }
@@ -1,9 +1,43 @@
 package com.thecout.lox.Parser;
 
+import com.thecout.lox.ScanError;
 import com.thecout.lox.Token;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// A syntax error found by the Parser, collected instead of printed so one parse reports every error.
 public class ParserError {
-    static void error(Token token, String message) {
-        System.out.printf("%d %s\n", token.line, message);
+    public final Token token;
+    public final int line;
+    public final String message;
+
+    ParserError(Token token, String message) {
+        this.token = token;
+        this.line = token.line;
+        this.message = message;
+    }
+
+    // A lexical error of the Scanner, it has no token
+    public ParserError(ScanError error) {
+        this.token = null;
+        this.line = error.line;
+        this.message = error.message;
+    }
+
+    // The errors of the Scanner and the Parser of one source ordered by line, on the same line lexical errors first
+    public static List<ParserError> merge(List<ScanError> scanErrors, List<ParserError> parseErrors) {
+        if (scanErrors.isEmpty()) return parseErrors;
+        List<ParserError> errors = new ArrayList<>();
+        scanErrors.forEach(error -> errors.add(new ParserError(error)));
+        errors.addAll(parseErrors);
+        errors.sort(Comparator.comparingInt(error -> error.line));
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "%d %s".formatted(line, message);
     }
 }
@@ -0,0 +1,14 @@
+package com.thecout.lox.Parser;
+
+public enum ParserMode {
+    // Original parser, decides with SortedTokenTypes, backtracks in assignment() and uses exceptions as lookahead.
+    RECURSIVE_DESCENT,
+    /*
+     * Every decision is taken on the next token using the FIRST sets of the Grammar, nothing is backtracked, see LL1Parser.
+     * Accepts the language of the Grammar, which differs from RECURSIVE_DESCENT: blocks may declare variables and
+     * functions, while a trailing ',' after the last argument or parameter is an error.
+     */
+    LL1,
+    // Statements like LL1, expressions in a single loop over an operator precedence table, see PrecedenceParser.
+    PRATT
+}
@@ -0,0 +1,231 @@
+package com.thecout.lox.Parser;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Token;
+import com.thecout.lox.TokenStream;
+import com.thecout.lox.TokenType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/*
+ * Operator precedence (shunting yard) parser for the expression rules of the grammar.
+ * Operators, open groups and open calls wait on an explicit stack instead of the Java
+ * call stack, so one loop parses every expression and nesting depth is only limited
+ * by the heap. Builds the same nodes as the recursive expression rules of the LL1Parser.
+ */
+final class PrecedenceParser {
+    private static final int NONE = 0;
+    private static final int ASSIGNMENT = 1;
+    private static final int OR = 2;
+    private static final int AND = 3;
+    private static final int EQUALITY = 4;
+    private static final int COMPARISON = 5;
+    private static final int TERM = 6;
+    private static final int FACTOR = 7;
+    private static final int UNARY = 8;
+
+    // Binding power of every infix operator indexed by ordinal, NONE for all other token types
+    private static final int[] PRECEDENCE = new int[TokenType.values().length];
+    // Infix operators whose nodes are Logical instead of Binary
+    private static final boolean[] LOGICAL = new boolean[TokenType.values().length];
+
+    static {
+        infix(TokenType.OR, OR, true);
+        infix(TokenType.AND, AND, true);
+        infix(TokenType.BANG_EQUAL, EQUALITY, true);
+        infix(TokenType.EQUAL_EQUAL, EQUALITY, true);
+        infix(TokenType.GREATER, COMPARISON, true);
+        infix(TokenType.GREATER_EQUAL, COMPARISON, true);
+        infix(TokenType.LESS, COMPARISON, true);
+        infix(TokenType.LESS_EQUAL, COMPARISON, true);
+        infix(TokenType.MINUS, TERM, false);
+        infix(TokenType.PLUS, TERM, false);
+        infix(TokenType.SLASH, FACTOR, false);
+        infix(TokenType.STAR, FACTOR, false);
+    }
+
+    // Kinds of entries on the operator stack
+    private static final int BINARY = 0;
+    private static final int PREFIX = 1;
+    private static final int ASSIGN = 2;
+    private static final int GROUP = 3;
+    private static final int CALL = 4;
+
+    private static final class Operator {
+        final int kind;
+        final int precedence;
+        // null for groups and calls, whose nodes keep no token
+        final Token token;
+        final Expr callee;
+        final List<Expr> arguments;
+
+        Operator(int kind, int precedence, Token token, Expr callee) {
+            this.kind = kind;
+            this.precedence = precedence;
+            this.token = token;
+            this.callee = callee;
+            this.arguments = kind == CALL ? new ArrayList<>() : null;
+        }
+
+        boolean isMarker() {
+            return kind == GROUP || kind == CALL;
+        }
+    }
+
+    private final TokenStream tokens;
+    private final Deque<Expr> operands = new ArrayDeque<>();
+    private final Deque<Operator> operators = new ArrayDeque<>();
+
+    PrecedenceParser(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    Expr expression() {
+        operands.clear();
+        operators.clear();
+        boolean expectOperand = true;
+        // call -> primary ( "(" arguments? ")" )?, only a primary that was not called yet can be called
+        boolean callable = false;
+        // The operand of the last closed group, not an assignment target
+        Expr grouped = null;
+
+        while (true) {
+            TokenType type = tokens.peekType();
+            if (expectOperand) {
+                switch (type) {
+                    case BANG:
+                    case MINUS:
+                        operators.push(new Operator(PREFIX, UNARY, advance(), null));
+                        continue;
+                    case LEFT_PAREN:
+                        tokens.advance();
+                        operators.push(new Operator(GROUP, NONE, null, null));
+                        continue;
+                    case TRUE:
+                        tokens.advance();
+                        operands.push(new Literal(true));
+                        break;
+                    case FALSE:
+                        tokens.advance();
+                        operands.push(new Literal(false));
+                        break;
+                    case NIL:
+                        tokens.advance();
+                        operands.push(new Literal(null));
+                        break;
+                    case NUMBER:
+                    case STRING:
+                        tokens.advance();
+                        operands.push(new Literal(tokens.previousLiteral()));
+                        break;
+                    case IDENTIFIER:
+                        operands.push(new Variable(advance()));
+                        break;
+                    default:
+                        throw error(tokens.peek(), "Expect expression.");
+                }
+                expectOperand = false;
+                callable = true;
+                continue;
+            }
+
+            int precedence = PRECEDENCE[type.ordinal()];
+            if (precedence != NONE) {
+                reduceWhile(precedence);
+                operators.push(new Operator(BINARY, precedence, advance(), null));
+                expectOperand = true;
+            } else if (type == TokenType.EQUAL) {
+                Token equals = advance();
+                reduceWhile(OR);
+                if (!(operands.peek() instanceof Variable) || operands.peek() == grouped) {
+                    throw error(equals, "Invalid assignment target.");
+                }
+                operators.push(new Operator(ASSIGN, ASSIGNMENT, ((Variable) operands.pop()).name, null));
+                expectOperand = true;
+            } else if (type == TokenType.LEFT_PAREN && callable) {
+                tokens.advance();
+                Operator call = new Operator(CALL, NONE, null, operands.pop());
+                if (tokens.peekType() == TokenType.RIGHT_PAREN) {
+                    tokens.advance();
+                    operands.push(new Call(call.callee, call.arguments));
+                    callable = false;
+                } else {
+                    operators.push(call);
+                    expectOperand = true;
+                }
+            } else if (type == TokenType.COMMA && openMarker() == CALL) {
+                tokens.advance();
+                reduceWhile(ASSIGNMENT);
+                operators.peek().arguments.add(operands.pop());
+                expectOperand = true;
+            } else if (type == TokenType.RIGHT_PAREN && openMarker() != -1) {
+                tokens.advance();
+                reduceWhile(ASSIGNMENT);
+                Operator marker = operators.pop();
+                if (marker.kind == CALL) {
+                    marker.arguments.add(operands.pop());
+                    operands.push(new Call(marker.callee, marker.arguments));
+                    callable = false;
+                } else {
+                    grouped = operands.peek();
+                    callable = true;
+                }
+            } else {
+                // Not part of the expression, the statement rules continue with this token
+                reduceWhile(ASSIGNMENT);
+                if (!operators.isEmpty()) {
+                    throw error(tokens.peek(), operators.peek().kind == CALL ? "Expected )." : "Expected ')'");
+                }
+                return operands.pop();
+            }
+            if (expectOperand) callable = false;
+        }
+    }
+
+    // Pops and applies every operator above the innermost group or call that binds at least as tight as precedence.
+    private void reduceWhile(int precedence) {
+        while (!operators.isEmpty() && !operators.peek().isMarker() && operators.peek().precedence >= precedence) {
+            Operator operator = operators.pop();
+            Expr right = operands.pop();
+            switch (operator.kind) {
+                case PREFIX:
+                    operands.push(new Unary(operator.token, right));
+                    break;
+                case ASSIGN:
+                    operands.push(new Assign(operator.token, right));
+                    break;
+                default: {
+                    Expr left = operands.pop();
+                    operands.push(LOGICAL[operator.token.type.ordinal()]
+                            ? new Logical(left, operator.token, right)
+                            : new Binary(left, operator.token, right));
+                }
+            }
+        }
+    }
+
+    // Kind of the innermost open group or call, or -1 at the top level of the expression
+    private int openMarker() {
+        for (Operator operator : operators) {
+            if (operator.isMarker()) return operator.kind;
+        }
+        return -1;
+    }
+
+    private Token advance() {
+        tokens.advance();
+        return tokens.previous();
+    }
+
+    private Parser.ParseError error(Token token, String message) {
+        return new Parser.ParseError(new ParserError(token, message));
+    }
+
+    private static void infix(TokenType type, int precedence, boolean logical) {
+        PRECEDENCE[type.ordinal()] = precedence;
+        LOGICAL[type.ordinal()] = logical;
+    }
+}
@@ -1,8 +1,7 @@
 package com.thecout.lox.Parser;
 
-import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.thecout.lox.TokenType;
 
@@ -21,16 +20,16 @@ public enum SortedTokenTypes {
     STATEMENT(TokenType.IDENTIFIER,TokenType.FUN,TokenType.FUN,TokenType.FOR,TokenType.IF,TokenType.WHILE,TokenType.PRINT,TokenType.RETURN,TokenType.LEFT_BRACE),;
 
 
-    private final List<TokenType> tokenTypes;
+    private final EnumSet<TokenType> tokenTypes;
 
     SortedTokenTypes(TokenType... tokenTypes){
-        this.tokenTypes = List.of(tokenTypes);
+        this.tokenTypes = EnumSet.noneOf(TokenType.class);
+        this.tokenTypes.addAll(List.of(tokenTypes));
     }
 
-    SortedTokenTypes(List<List<TokenType>> firstTokens){
-        this.tokenTypes = firstTokens.stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+    SortedTokenTypes(List<EnumSet<TokenType>> firstTokens){
+        this.tokenTypes = EnumSet.noneOf(TokenType.class);
+        firstTokens.forEach(this.tokenTypes::addAll);
     }
 
     public boolean containsTokenType(TokenType tokenType){
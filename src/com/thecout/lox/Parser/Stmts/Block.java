@@ -10,6 +10,12 @@ public class Block extends Stmt {
 
     public final List<Stmt> statements;
 
+    // Set by the Resolver: the variables declared in this scope, indexed by slot,
+    // null if the block declares nothing and runs in the scope around it
+    public String[] names;
+    // Set by the Resolver: a function is declared in the block, its closures may keep the frame
+    public boolean captured;
+
     @Override
     public String print() {
         return "(%s)".formatted(statements.stream().map(Stmt::print).collect(Collectors.joining("\n")));
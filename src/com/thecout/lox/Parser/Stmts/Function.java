@@ -18,6 +18,13 @@ public class Function extends Stmt {
     public final List<Token> parameters;
     public final List<Stmt> body;
 
+    // Set by the Resolver: slot of the function in the enclosing scope, -1 for globals, and the
+    // variables of the call scope, the parameters first and then the declarations of the body
+    public int slot = -1;
+    public String[] names;
+    // Set by the Resolver: a function is declared in the body, its closures may keep the call frame
+    public boolean closures;
+
     @Override
     public String print() {
         String params = parameters.stream().map(t -> t.lexeme).collect(Collectors.joining(" "));
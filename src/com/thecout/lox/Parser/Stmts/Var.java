@@ -12,6 +12,9 @@ public class Var extends Stmt {
     public final Token name;
     public final Expr initializer;
 
+    // Set by the Resolver: slot of the variable in its scope, -1 for globals
+    public int slot = -1;
+
     @Override
     public String print() {
         return "(= %s %s)".formatted(name.lexeme, initializer.print());
@@ -4,17 +4,28 @@ import com.thecout.lox.Parser.Expr.Expr;
 
 public class While extends Stmt {
     public While(Expr condition, Stmt body) {
+        this(condition, body, null);
+    }
+
+    public While(Expr condition, Stmt body, Expr increment) {
         this.condition = condition;
         this.body = body;
+        this.increment = increment;
     }
 
 
     public final Expr condition;
     public final Stmt body;
+    // The increment of a for loop, evaluated after every iteration; null for while loops
+    public final Expr increment;
+
+    // Set by the Resolver: the loop counts a local variable, as in "i < n; i = i + 1"
+    public boolean counted;
 
     @Override
     public String print() {
-        return "(while %s %s)".formatted(condition.print(), body.print());
+        if (increment == null) return "(while %s %s)".formatted(condition.print(), body.print());
+        return "(while %s %s %s)".formatted(condition.print(), body.print(), increment.print());
     }
 
     @Override
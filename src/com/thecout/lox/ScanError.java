@@ -0,0 +1,17 @@
+package com.thecout.lox;
+
+// Characters the Scanner found no token for, collected like the errors of the Parser.
+public class ScanError {
+    public final int line;
+    public final String message;
+
+    ScanError(int line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "%d %s".formatted(line, message);
+    }
+}
@@ -1,21 +1,60 @@
 package com.thecout.lox;
 
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 
 public class Scanner {
-    private final String source;
+    private final CharSequence source;
+    private final ScannerMode mode;
+    private final SymbolTable symbols = new SymbolTable();
     private final List<Token> tokens = new ArrayList<>();
+    private final List<ScanError> errors = new ArrayList<>();
 
     public Scanner(String source) {
+        this(source, ScannerMode.TABLE);
+    }
+
+    public Scanner(String source, ScannerMode mode) {
+        this((CharSequence) source, mode);
+    }
+
+    private Scanner(CharSequence source, ScannerMode mode) {
         this.source = source;
+        this.mode = mode;
+    }
+
+    // Maps the file into memory and scans its bytes in place, only token lexemes are copied onto the heap.
+    public static Scanner ofFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + file + " is too large to be scanned (" + size + " bytes).");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new Scanner(new ByteCharSequence(buffer), ScannerMode.TABLE);
+        }
     }
 
 
     public List<Token> scanLine(String line, int lineNumber) {
+        if (mode == ScannerMode.TABLE) {
+            List<Token> returnToken = new ArrayList<>();
+            Lexer lexer = new Lexer(line, 0, line.length(), lineNumber, symbols, errors);
+            for (Token token = lexer.next(); token.type != TokenType.EOF; token = lexer.next()) {
+                returnToken.add(token);
+            }
+            return returnToken;
+        }
+
         List<Token> returnToken = new ArrayList<>();
 
         //find all matching comments and replace with word "comment"
@@ -173,10 +212,11 @@ public class Scanner {
                     }
                     else if (lexem.matches("[a-zA-Z]+"))
                     {
-                        token = new Token(TokenType.IDENTIFIER, lexem, lexem, lineNumber);
+                        int symbol = symbols.intern(lexem);
+                        token = new Token(TokenType.IDENTIFIER, symbols.name(symbol), symbols.name(symbol), lineNumber, symbol);
                         break;
                     }
-                    System.out.println("Error: No matching token found for lexem " + lexem + ".");
+                    errors.add(new ScanError(lineNumber, "No matching token found for lexem " + lexem + "."));
             }
 
             if (token != null)
@@ -267,8 +307,28 @@ public class Scanner {
         return token;
     }
 
+    // Identifiers of all tokens produced by this scanner, indexed by Token.symbol
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    // Every character without a token so far, in source order; a stream() adds to it as tokens are pulled
+    public List<ScanError> getErrors() {
+        return errors;
+    }
+
     public List<Token> scan() {
-        String[] lines = source.split("\n");
+        if (mode == ScannerMode.TABLE) {
+            Lexer lexer = new Lexer(source, symbols, errors);
+            Token token;
+            do {
+                token = lexer.next();
+                tokens.add(token);
+            } while (token.type != TokenType.EOF);
+            return tokens;
+        }
+
+        String[] lines = source.toString().split("\n");
         for (int i = 0; i < lines.length; i++) {
             tokens.addAll(scanLine(lines[i], i));
         }
@@ -276,4 +336,35 @@ public class Scanner {
         return tokens;
     }
 
+    public List<Token> scanParallel() {
+        return scanParallel(ForkJoinPool.commonPool());
+    }
+
+    // Same tokens as scan(), the source is split at line boundaries and the chunks are scanned on the pool.
+    public List<Token> scanParallel(ForkJoinPool pool) {
+        if (mode == ScannerMode.REGEX) {
+            return scan();
+        }
+        tokens.addAll(new ParallelScan(source, symbols, errors, pool).scan());
+        return tokens;
+    }
+
+    // Compact struct of arrays form of the tokens, only available for the table scanner.
+    public TokenBuffer scanToBuffer() {
+        if (mode == ScannerMode.REGEX) {
+            throw new IllegalStateException("Token buffers are only produced by the table scanner.");
+        }
+        TokenBuffer buffer = new TokenBuffer(source, symbols);
+        new Lexer(source, symbols, errors).scanInto(buffer);
+        return buffer;
+    }
+
+    // Tokens are scanned lazily while the consumer pulls them, nothing but the lookahead window is retained.
+    public TokenStream stream() {
+        if (mode == ScannerMode.REGEX) {
+            return TokenStream.of(scan());
+        }
+        return new LookaheadTokenStream(new Lexer(source, symbols, errors));
+    }
+
 }
\ No newline at end of file
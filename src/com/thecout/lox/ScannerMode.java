@@ -0,0 +1,8 @@
+package com.thecout.lox;
+
+public enum ScannerMode {
+    // Original implementation: regex rewrites per line, then a switch over the split lexemes.
+    REGEX,
+    // Single pass over the characters driven by the ScannerTable DFA.
+    TABLE
+}
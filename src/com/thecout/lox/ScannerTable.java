@@ -0,0 +1,221 @@
+package com.thecout.lox;
+
+import java.util.Arrays;
+
+/*
+ * Character classes and state transitions of the scanner DFA.
+ * A state is accepting when ACCEPTING[state] is set; the Lexer runs the
+ * automaton as far as possible and falls back to the last accepting state
+ * (maximal munch).
+ */
+final class ScannerTable {
+
+    // Character classes
+    static final int OTHER = 0;
+    static final int SPACE = 1;
+    static final int CARRIAGE_RETURN = 2;
+    static final int LINE_FEED = 3;
+    static final int LETTER = 4;
+    static final int DIGIT = 5;
+    static final int POINT = 6;
+    static final int QUOTE = 7;
+    static final int SLASH_CHAR = 8;
+    static final int BANG_CHAR = 9;
+    static final int EQUAL_CHAR = 10;
+    static final int LESS_CHAR = 11;
+    static final int GREATER_CHAR = 12;
+    static final int SINGLE = 13;
+    static final int CLASS_COUNT = 14;
+
+    // States
+    static final int ERROR = -1;
+    static final int START = 0;
+    static final int WHITESPACE = 1;
+    static final int NEWLINE = 2;
+    static final int IDENTIFIER = 3;
+    static final int INTEGER = 4;
+    static final int INTEGER_POINT = 5;
+    static final int FRACTION = 6;
+    static final int DOT = 7;
+    static final int STRING_OPEN = 8;
+    static final int STRING = 9;
+    static final int SLASH = 10;
+    static final int COMMENT = 11;
+    static final int BANG = 12;
+    static final int BANG_EQUAL = 13;
+    static final int EQUAL = 14;
+    static final int EQUAL_EQUAL = 15;
+    static final int LESS = 16;
+    static final int LESS_EQUAL = 17;
+    static final int GREATER = 18;
+    static final int GREATER_EQUAL = 19;
+    static final int SINGLE_CHARACTER = 20;
+    static final int STATE_COUNT = 21;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final int[] TRANSITIONS = new int[STATE_COUNT * CLASS_COUNT];
+    static final boolean[] ACCEPTING = new boolean[STATE_COUNT];
+
+    // Token type and lexeme of the states that always produce the same token
+    static final TokenType[] FIXED_TYPE = new TokenType[STATE_COUNT];
+    static final String[] FIXED_LEXEME = new String[STATE_COUNT];
+
+    static final String[] KEYWORDS = {
+            "and", "else", "false", "fun", "for", "if", "nil", "or", "print", "return", "true", "var", "while"
+    };
+    static final TokenType[] KEYWORD_TYPES = {
+            TokenType.AND, TokenType.ELSE, TokenType.FALSE, TokenType.FUN, TokenType.FOR, TokenType.IF, TokenType.NIL,
+            TokenType.OR, TokenType.PRINT, TokenType.RETURN, TokenType.TRUE, TokenType.VAR, TokenType.WHILE
+    };
+
+    // Perfect hash of the keywords, see keywordHash(), mapping to the index in KEYWORDS or -1
+    private static final int[] KEYWORD_SLOTS = new int[32];
+
+    // Lexeme of every token type that always has the same spelling, indexed by ordinal
+    static final String[] LEXEME_OF_TYPE = new String[TokenType.values().length];
+
+    // Token type and lexeme of every character in the SINGLE class
+    static final TokenType[] SINGLE_TYPE = new TokenType[128];
+    static final String[] SINGLE_LEXEME = new String[128];
+
+    static {
+        classify(" \t\f\u000B", SPACE);
+        classify("\r", CARRIAGE_RETURN);
+        classify("\n", LINE_FEED);
+        classify("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ", LETTER);
+        classify("0123456789", DIGIT);
+        classify(".", POINT);
+        classify("\"", QUOTE);
+        classify("/", SLASH_CHAR);
+        classify("!", BANG_CHAR);
+        classify("=", EQUAL_CHAR);
+        classify("<", LESS_CHAR);
+        classify(">", GREATER_CHAR);
+
+        single('(', TokenType.LEFT_PAREN);
+        single(')', TokenType.RIGHT_PAREN);
+        single('{', TokenType.LEFT_BRACE);
+        single('}', TokenType.RIGHT_BRACE);
+        single(',', TokenType.COMMA);
+        single('-', TokenType.MINUS);
+        single('+', TokenType.PLUS);
+        single(';', TokenType.SEMICOLON);
+        single('*', TokenType.STAR);
+
+        Arrays.fill(KEYWORD_SLOTS, -1);
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            String keyword = KEYWORDS[k];
+            int slot = keywordHash(keyword.charAt(0), keyword.charAt(keyword.length() - 1), keyword.length());
+            if (KEYWORD_SLOTS[slot] != -1) {
+                throw new IllegalStateException("Keyword hash collision between " + keyword + " and " + KEYWORDS[KEYWORD_SLOTS[slot]]);
+            }
+            KEYWORD_SLOTS[slot] = k;
+            LEXEME_OF_TYPE[KEYWORD_TYPES[k].ordinal()] = keyword;
+        }
+        LEXEME_OF_TYPE[TokenType.EOF.ordinal()] = "";
+
+        Arrays.fill(TRANSITIONS, ERROR);
+
+        transition(START, SPACE, WHITESPACE);
+        transition(START, CARRIAGE_RETURN, WHITESPACE);
+        transition(START, LINE_FEED, NEWLINE);
+        transition(START, LETTER, IDENTIFIER);
+        transition(START, DIGIT, INTEGER);
+        transition(START, POINT, DOT);
+        transition(START, QUOTE, STRING_OPEN);
+        transition(START, SLASH_CHAR, SLASH);
+        transition(START, BANG_CHAR, BANG);
+        transition(START, EQUAL_CHAR, EQUAL);
+        transition(START, LESS_CHAR, LESS);
+        transition(START, GREATER_CHAR, GREATER);
+        transition(START, SINGLE, SINGLE_CHARACTER);
+
+        transition(WHITESPACE, SPACE, WHITESPACE);
+        transition(WHITESPACE, CARRIAGE_RETURN, WHITESPACE);
+
+        transition(IDENTIFIER, LETTER, IDENTIFIER);
+
+        transition(INTEGER, DIGIT, INTEGER);
+        transition(INTEGER, POINT, INTEGER_POINT);
+        transition(INTEGER_POINT, DIGIT, FRACTION);
+        transition(DOT, DIGIT, FRACTION);
+        transition(FRACTION, DIGIT, FRACTION);
+
+        // strings and comments never span a line, like the line based regex scanner
+        for (int c = 0; c < CLASS_COUNT; c++) {
+            if (c != QUOTE && c != LINE_FEED && c != CARRIAGE_RETURN) {
+                transition(STRING_OPEN, c, STRING_OPEN);
+            }
+            if (c != LINE_FEED && c != CARRIAGE_RETURN) {
+                transition(COMMENT, c, COMMENT);
+            }
+        }
+        transition(STRING_OPEN, QUOTE, STRING);
+        transition(SLASH, SLASH_CHAR, COMMENT);
+
+        transition(BANG, EQUAL_CHAR, BANG_EQUAL);
+        transition(EQUAL, EQUAL_CHAR, EQUAL_EQUAL);
+        transition(LESS, EQUAL_CHAR, LESS_EQUAL);
+        transition(GREATER, EQUAL_CHAR, GREATER_EQUAL);
+
+        for (int state : new int[]{WHITESPACE, NEWLINE, IDENTIFIER, INTEGER, FRACTION, STRING, COMMENT, SINGLE_CHARACTER}) {
+            ACCEPTING[state] = true;
+        }
+
+        fixed(DOT, TokenType.DOT, ".");
+        fixed(SLASH, TokenType.SLASH, "/");
+        fixed(BANG, TokenType.BANG, "!");
+        fixed(BANG_EQUAL, TokenType.BANG_EQUAL, "!=");
+        fixed(EQUAL, TokenType.EQUAL, "=");
+        fixed(EQUAL_EQUAL, TokenType.EQUAL_EQUAL, "==");
+        fixed(LESS, TokenType.LESS, "<");
+        fixed(LESS_EQUAL, TokenType.LESS_EQUAL, "<=");
+        fixed(GREATER, TokenType.GREATER, ">");
+        fixed(GREATER_EQUAL, TokenType.GREATER_EQUAL, ">=");
+    }
+
+    private ScannerTable() {
+    }
+
+    static int charClass(char c) {
+        return c < 128 ? CHAR_CLASS[c] : OTHER;
+    }
+
+    // Index in KEYWORDS of the only keyword that can be spelled with this first and last char and length, or -1
+    static int keywordCandidate(char first, char last, int length) {
+        if (length < 2 || length > 6) return -1;
+        return KEYWORD_SLOTS[keywordHash(first, last, length)];
+    }
+
+    private static int keywordHash(char first, char last, int length) {
+        return (first + 5 * last + length) & 31;
+    }
+
+    static int next(int state, char c) {
+        return TRANSITIONS[state * CLASS_COUNT + charClass(c)];
+    }
+
+    private static void classify(String chars, int charClass) {
+        for (char c : chars.toCharArray()) {
+            CHAR_CLASS[c] = (byte) charClass;
+        }
+    }
+
+    private static void single(char c, TokenType type) {
+        CHAR_CLASS[c] = SINGLE;
+        SINGLE_TYPE[c] = type;
+        SINGLE_LEXEME[c] = String.valueOf(c);
+        LEXEME_OF_TYPE[type.ordinal()] = SINGLE_LEXEME[c];
+    }
+
+    private static void transition(int from, int charClass, int to) {
+        TRANSITIONS[from * CLASS_COUNT + charClass] = to;
+    }
+
+    private static void fixed(int state, TokenType type, String lexeme) {
+        ACCEPTING[state] = true;
+        FIXED_TYPE[state] = type;
+        FIXED_LEXEME[state] = lexeme;
+        LEXEME_OF_TYPE[type.ordinal()] = lexeme;
+    }
+}
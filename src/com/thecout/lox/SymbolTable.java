@@ -0,0 +1,97 @@
+package com.thecout.lox;
+
+import java.util.Arrays;
+
+/*
+ * Interns identifiers to dense ids 0..size()-1. Every occurrence of an identifier
+ * shares the same String, and lookups compare the source characters in place so
+ * nothing is allocated for identifiers that were seen before.
+ */
+public class SymbolTable {
+    private String[] names = new String[64];
+    private int[] hashes = new int[64];
+    // open addressing table holding id + 1, 0 marks a free slot
+    private int[] slots = new int[128];
+    private int size = 0;
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    public int intern(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(names[id], source, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(source.subSequence(start, end).toString(), hash, slot);
+    }
+
+    // Returns the id of the name or -1 if it was never interned.
+    public int lookup(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int end) {
+        if (name.length() != end - start) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package com.thecout.lox;
+
+public class TextEdit {
+    public TextEdit(int start, int end, String replacement) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid edit range " + start + ".." + end);
+        }
+        this.start = start;
+        this.end = end;
+        this.replacement = replacement;
+    }
+
+    // Range [start, end) of the previous source that gets replaced
+    public final int start;
+    public final int end;
+    public final String replacement;
+}
@@ -0,0 +1,170 @@
+package com.thecout.lox;
+
+import java.util.Arrays;
+
+/*
+ * Struct of arrays token storage. A token is an index into parallel primitive
+ * arrays holding its type, the offset and length of its lexeme in the source,
+ * its line and the index of its literal value, or the symbol id for identifiers.
+ * Token objects are only created as views when somebody asks for one.
+ */
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int NO_LITERAL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CharSequence source;
+    private final SymbolTable symbols;
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] literals;
+    private Object[] literalPool;
+    private int size = 0;
+    private int literalCount = 0;
+
+    TokenBuffer(CharSequence source, SymbolTable symbols) {
+        this.source = source;
+        this.symbols = symbols;
+        types = new byte[INITIAL_CAPACITY];
+        starts = new int[INITIAL_CAPACITY];
+        lengths = new int[INITIAL_CAPACITY];
+        lines = new int[INITIAL_CAPACITY];
+        literals = new int[INITIAL_CAPACITY];
+        literalPool = new Object[16];
+    }
+
+    void addIdentifier(int start, int length, int line, int symbol) {
+        append(TokenType.IDENTIFIER, start, length, line, symbol);
+    }
+
+    void add(TokenType type, int start, int length, int line, Object literal) {
+        int literalIndex = NO_LITERAL;
+        if (literal != null) {
+            if (literalCount == literalPool.length) {
+                literalPool = Arrays.copyOf(literalPool, literalCount * 2);
+            }
+            literalPool[literalCount] = literal;
+            literalIndex = literalCount++;
+        }
+        append(type, start, length, line, literalIndex);
+    }
+
+    private void append(TokenType type, int start, int length, int line, int literal) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            literals = Arrays.copyOf(literals, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        literals[size] = literal;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    public int symbol(int index) {
+        return type(index) == TokenType.IDENTIFIER ? literals[index] : -1;
+    }
+
+    public String lexeme(int index) {
+        String fixed = ScannerTable.LEXEME_OF_TYPE[types[index]];
+        if (fixed != null) return fixed;
+        if (type(index) == TokenType.IDENTIFIER) return symbols.name(literals[index]);
+        return source.subSequence(starts[index], starts[index] + lengths[index]).toString();
+    }
+
+    public Object literal(int index) {
+        if (type(index) != TokenType.IDENTIFIER && literals[index] != NO_LITERAL) return literalPool[literals[index]];
+        return lexeme(index);
+    }
+
+    public Token token(int index) {
+        return new Token(type(index), lexeme(index), literal(index), lines[index], symbol(index));
+    }
+
+    // View of the token whose identifier symbol is translated through remap into the target table.
+    Token token(int index, int[] remap, SymbolTable target) {
+        if (type(index) != TokenType.IDENTIFIER) return token(index);
+        int symbol = remap[literals[index]];
+        String name = target.name(symbol);
+        return new Token(TokenType.IDENTIFIER, name, name, lines[index], symbol);
+    }
+
+    public TokenStream stream() {
+        return new Cursor();
+    }
+
+    private class Cursor implements TokenStream {
+        private int current = 0;
+
+        @Override
+        public Token peek() {
+            return token(current);
+        }
+
+        @Override
+        public Token peek(int distance) {
+            return token(Math.min(current + distance, size - 1));
+        }
+
+        @Override
+        public TokenType peekType() {
+            return type(current);
+        }
+
+        @Override
+        public Token previous() {
+            if (current == 0) {
+                throw new IllegalStateException("No token consumed yet");
+            }
+            return token(current - 1);
+        }
+
+        @Override
+        public TokenType previousType() {
+            if (current == 0) {
+                throw new IllegalStateException("No token consumed yet");
+            }
+            return type(current - 1);
+        }
+
+        @Override
+        public Object previousLiteral() {
+            if (current == 0) {
+                throw new IllegalStateException("No token consumed yet");
+            }
+            return literal(current - 1);
+        }
+
+        @Override
+        public void advance() {
+            if (current < size - 1) current++;
+        }
+
+        @Override
+        public void rewind() {
+            if (current == 0) {
+                throw new IllegalStateException("No token consumed yet");
+            }
+            current--;
+        }
+    }
+}
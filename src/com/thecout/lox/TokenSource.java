@@ -0,0 +1,6 @@
+package com.thecout.lox;
+
+public interface TokenSource {
+    // Returns the next token, the EOF token is returned again once the input is exhausted.
+    Token next();
+}
@@ -0,0 +1,43 @@
+package com.thecout.lox;
+
+import java.util.Iterator;
+import java.util.List;
+
+public interface TokenStream {
+    Token peek();
+
+    Token peek(int distance);
+
+    TokenType peekType();
+
+    Token previous();
+
+    // Parts of previous() for streams that can answer them without creating a Token
+    default TokenType previousType() {
+        return previous().type;
+    }
+
+    default Object previousLiteral() {
+        return previous().literal;
+    }
+
+    void advance();
+
+    // Steps back over the last consumed token.
+    void rewind();
+
+    static TokenStream of(List<Token> tokens) {
+        Iterator<Token> iterator = tokens.iterator();
+        return new LookaheadTokenStream(new TokenSource() {
+            private Token last;
+
+            @Override
+            public Token next() {
+                if (iterator.hasNext()) {
+                    last = iterator.next();
+                }
+                return last;
+            }
+        });
+    }
+}
@@ -95,6 +95,7 @@ public class AstPrinter implements ExprVisitor<String>, StmtVisitor<String> {
 
     @Override
     public String visitWhileStmt(While stmt) {
-        return "(while %s %s)".formatted(stmt.condition.print(), stmt.body.print());
+        if (stmt.increment == null) return "(while %s %s)".formatted(stmt.condition.print(), stmt.body.print());
+        return "(while %s %s %s)".formatted(stmt.condition.print(), stmt.body.print(), stmt.increment.print());
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.thecout.lox.Traversal;
+
+public enum ExecutionMode {
+    // The Interpreter visits the tree, one accept per node and evaluation.
+    TREE_WALKING,
+    // The tree is compiled to bytecode once and run by the VM, see com.thecout.lox.Bytecode.
+    // Lox calls do not use the Java stack, so recursion is only bound by memory and
+    // functions can run as coroutines with the natives coroutine and yield.
+    BYTECODE,
+    // The tree is turned into nodes that specialize themselves on the types they see, see com.thecout.lox.Nodes.
+    SPECIALIZING
+}
@@ -1,6 +1,10 @@
 package com.thecout.lox.Traversal;
 
 
+import com.thecout.lox.Bytecode.BytecodeFunction;
+import com.thecout.lox.Bytecode.Compiler;
+import com.thecout.lox.Bytecode.VM;
+import com.thecout.lox.Nodes.NodeBuilder;
 import com.thecout.lox.Parser.Expr.*;
 import com.thecout.lox.Parser.Stmts.*;
 import com.thecout.lox.TokenType;
@@ -8,17 +12,27 @@ import com.thecout.lox.Traversal.InterpreterUtils.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class Interpreter implements ExprVisitor<Object>,
-        StmtVisitor<Void> {
+        StmtVisitor<Object> {
 
     public final Environment globals = new Environment();
-    private Environment environment = globals;
-
+    public final TailCall tailCall = new TailCall();
+    // Frame of the innermost local scope, see Frames; null while top level code runs
+    private Object[] frame = null;
+    private final Optimizer optimizer = new Optimizer();
+    private final Resolver resolver = new Resolver();
+    private final ExecutionMode mode;
 
 
 
     public Interpreter() {
+        this(ExecutionMode.TREE_WALKING);
+    }
+
+    public Interpreter(ExecutionMode mode) {
+        this.mode = mode;
         globals.define("clock", new LoxCallable() {
             @Override
             public int arity() {
@@ -28,6 +42,11 @@ public class Interpreter implements ExprVisitor<Object>,
             @Override
             public Object call(Interpreter interpreter,
                                List<Object> arguments) {
+                return call0(interpreter);
+            }
+
+            @Override
+            public Object call0(Interpreter interpreter) {
                 return (double) System.currentTimeMillis() / 1000.0;
             }
 
@@ -36,29 +55,48 @@ public class Interpreter implements ExprVisitor<Object>,
                 return "<native fn>";
             }
         });
+        if (mode == ExecutionMode.BYTECODE) VM.defineNatives(globals);
+    }
+
+    // The statements resolved and compiled for the VM
+    public BytecodeFunction compile(List<Stmt> statements) {
+        return new Compiler().compile(resolver.resolve(optimizer.optimize(statements)));
     }
 
     public void interpret(List<Stmt> statements) {
         try {
-            for (Stmt statement : statements) {
-                execute(statement);
+            List<Stmt> resolved = resolver.resolve(optimizer.optimize(statements));
+            if (mode == ExecutionMode.BYTECODE) {
+                new VM(this).run(new Compiler().compile(resolved));
+                return;
+            }
+            if (mode == ExecutionMode.SPECIALIZING) {
+                new NodeBuilder(this).build(resolved).execute();
+                return;
+            }
+            for (Stmt statement : resolved) {
+                // a return at the top level ends the program
+                if (execute(statement) != Completion.NORMAL) return;
             }
         } catch (RuntimeError error) {
             error.printStackTrace();
         }
     }
 
-    public void executeBlock(List<Stmt> statements,
-                             Environment environment) {
-        Environment previous = this.environment;
+    // Completion of the first statement that does not complete normally, see Completion
+    public Object executeBlock(List<Stmt> statements,
+                               Object[] frame) {
+        Object[] previous = this.frame;
         try {
-            this.environment = environment;
+            this.frame = frame;
 
             for (Stmt statement : statements) {
-                execute(statement);
+                Object completion = execute(statement);
+                if (completion != Completion.NORMAL) return completion;
             }
+            return Completion.NORMAL;
         } finally {
-            this.environment = previous;
+            this.frame = previous;
         }
     }
 
@@ -66,16 +104,22 @@ public class Interpreter implements ExprVisitor<Object>,
         return expr.accept(this);
     }
 
-    public void execute(Stmt stmt) {
-        stmt.accept(this);
+    public Object execute(Stmt stmt) {
+        return stmt.accept(this);
     }
 
 
     @Override
     public Object visitAssignExpr(Assign expr) {
         Object value = evaluate(expr.value);
-        environment.assign(expr.name, value);
-        return expr.value;
+        if (expr.depth >= 0) {
+            Frames.assign(frame, expr.depth, expr.slot, expr.name, value, globals);
+        } else if (expr.depth == Resolver.GLOBAL) {
+            globals.assign(expr.name, value);
+        } else {
+            Frames.assign(frame, expr.name, value, globals);
+        }
+        return value;
     }
 
     @Override
@@ -83,9 +127,6 @@ public class Interpreter implements ExprVisitor<Object>,
         Object left = evaluate(expr.left);
         Object right = evaluate(expr.right);
 
-        if(left instanceof Literal) left = ((Literal) left).value;
-        if(right instanceof Literal) right = ((Literal) right).value;
-
         TokenType type = expr.operator.type;
         switch (type)
         {
@@ -99,12 +140,55 @@ public class Interpreter implements ExprVisitor<Object>,
 
     @Override
     public Object visitCallExpr(Call expr) {
-        Object callee  = evaluate(expr.callee);
-        if (callee instanceof LoxCallable) {
-            var args = new ArrayList<Object>(expr.arguments);
-            return ((LoxCallable) callee).call(this, args);
+        return call(expr, callee(expr));
+    }
+
+    // The callee, checked against the number of arguments
+    private LoxCallable callee(Call expr) {
+        LoxCallable function;
+        int arity;
+        if (expr.cachedVersion == globals.version()) {
+            function = (LoxCallable) expr.cachedCallee;
+            arity = expr.cachedArity;
+        } else {
+            Object callee  = evaluate(expr.callee);
+            if (!(callee instanceof LoxCallable)) {
+                throw new RuntimeError(((Variable) expr.callee).name, "Can only call expressions of type function.");
+            }
+            function = (LoxCallable) callee;
+            arity = function.arity();
+            if (expr.callee instanceof Variable && ((Variable) expr.callee).depth == Resolver.GLOBAL) {
+                // top level functions do not change until a global callable does, see Environment.version
+                expr.cachedCallee = function;
+                expr.cachedArity = arity;
+                expr.cachedVersion = globals.version();
+            }
+        }
+        if (expr.arguments.size() != arity) {
+            throw new RuntimeError(expr.callee instanceof Variable ? ((Variable) expr.callee).name : null,
+                    "Expected " + arity + " arguments but got " + expr.arguments.size() + ".");
+        }
+        return function;
+    }
+
+    // Arguments are evaluated here, up to four of them are passed without a list
+    private Object call(Call expr, LoxCallable function) {
+        List<Expr> arguments = expr.arguments;
+        switch (arguments.size()) {
+            case 0: return function.call0(this);
+            case 1: return function.call1(this, evaluate(arguments.get(0)));
+            case 2: return function.call2(this, evaluate(arguments.get(0)), evaluate(arguments.get(1)));
+            case 3: return function.call3(this, evaluate(arguments.get(0)), evaluate(arguments.get(1)),
+                    evaluate(arguments.get(2)));
+            case 4: return function.call4(this, evaluate(arguments.get(0)), evaluate(arguments.get(1)),
+                    evaluate(arguments.get(2)), evaluate(arguments.get(3)));
+            default:
+                List<Object> values = new ArrayList<>(arguments.size());
+                for (Expr argument : arguments) {
+                    values.add(evaluate(argument));
+                }
+                return function.call(this, values);
         }
-        throw new RuntimeError(((Variable) expr.callee).name, "Can only call expressions of type function.");
     }
 
     @Override
@@ -121,11 +205,9 @@ public class Interpreter implements ExprVisitor<Object>,
     public Object visitLogicalExpr(Logical expr) {
         Object left = evaluate(expr.left);
         Object right = evaluate(expr.right);
-        if(left instanceof Literal) left = ((Literal) left).value;
-        if(right instanceof Literal) right = ((Literal) right).value;
         TokenType type = expr.operator.type;
         switch (type){
-            case EQUAL_EQUAL: return left == right;
+            case EQUAL_EQUAL: return Objects.equals(left, right);
             case LESS_EQUAL: return ((Double) left) <= ((Double) right);
             case GREATER_EQUAL: return ((Double) left) >= ((Double) right);
             case LESS: return ((Double) left) < ((Double) right);
@@ -148,69 +230,138 @@ public class Interpreter implements ExprVisitor<Object>,
 
     @Override
     public Object visitVariableExpr(Variable expr) {
-        return environment.get(expr.name);
+        if (expr.depth >= 0) return Frames.get(frame, expr.depth, expr.slot, expr.name, globals);
+        if (expr.depth == Resolver.GLOBAL) return globals.get(expr.name);
+        return Frames.get(frame, expr.name, globals);
     }
 
     @Override
-    public Void visitBlockStmt(Block stmt) {
-        executeBlock(stmt.statements,new Environment(environment));
-        return null;
+    public Object visitBlockStmt(Block stmt) {
+        if (stmt.names == null) return executeBlock(stmt.statements, frame);
+        return executeBlock(stmt.statements, Frames.create(frame, stmt.names));
     }
 
     @Override
-    public Void visitExpressionStmt(Expression stmt) {
+    public Object visitExpressionStmt(Expression stmt) {
         evaluate(stmt.expression);
-        return null;
+        return Completion.NORMAL;
     }
 
     @Override
-    public Void visitFunctionStmt(Function stmt) {
-        environment.define(stmt.name.lexeme, new LoxFunction(stmt,environment));
-        return null;
+    public Object visitFunctionStmt(Function stmt) {
+        LoxFunction function = new LoxFunction(stmt, frame);
+        if (stmt.slot >= 0) {
+            Frames.define(frame, stmt.slot, function);
+        } else {
+            globals.define(stmt.name.lexeme, function);
+        }
+        return Completion.NORMAL;
     }
 
     @Override
-    public Void visitIfStmt(If stmt) {
+    public Object visitIfStmt(If stmt) {
         boolean condition = (boolean) evaluate(stmt.condition);
         if(condition)
         {
-            execute(stmt.thenBranch);
+            return execute(stmt.thenBranch);
         }
-        else
+        else if (stmt.elseBranch != null)
         {
-            execute(stmt.elseBranch);
+            return execute(stmt.elseBranch);
         }
-        return null;
+        return Completion.NORMAL;
     }
 
     @Override
-    public Void visitPrintStmt(Print stmt)
+    public Object visitPrintStmt(Print stmt)
     {
         System.out.println(evaluate(stmt.expression));
-        return null;
+        return Completion.NORMAL;
     }
 
     @Override
-    public Void visitReturnStmt(Return stmt)
+    public Object visitReturnStmt(Return stmt)
     {
-        throw new LoxReturn(evaluate(stmt.value));
+        if (stmt.value instanceof Call && ((Call) stmt.value).tail) return tailCall((Call) stmt.value);
+        return stmt.value == null ? null : evaluate(stmt.value);
+    }
+
+    // A LoxFunction called in tail position is left to the LoxFunction that returns, see TailCall
+    private Object tailCall(Call expr) {
+        LoxCallable function = callee(expr);
+        if (!(function instanceof LoxFunction)) return call(expr, function);
+        int start = tailCall.top();
+        for (Expr argument : expr.arguments) {
+            tailCall.push(evaluate(argument));
+        }
+        tailCall.pending((LoxFunction) function, start);
+        return Completion.TAIL_CALL;
     }
 
     @Override
-    public Void visitVarStmt(Var stmt)
+    public Object visitVarStmt(Var stmt)
     {
-        environment.define(stmt.name.lexeme, evaluate(stmt.initializer));
-        return null;
+        Object value = evaluate(stmt.initializer);
+        if (stmt.slot >= 0) {
+            Frames.define(frame, stmt.slot, value);
+        } else {
+            globals.define(stmt.name.lexeme, value);
+        }
+        return Completion.NORMAL;
     }
 
     @Override
-    public Void visitWhileStmt(While stmt)
+    public Object visitWhileStmt(While stmt)
     {
-        while ((boolean) evaluate(stmt.condition))
+        // a body block no closure can keep gets one frame, cleared for every iteration
+        Block block = stmt.body instanceof Block && ((Block) stmt.body).names != null
+                && !((Block) stmt.body).captured ? (Block) stmt.body : null;
+        Object[] scope = null;
+        while (stmt.counted ? countedCondition(stmt) : (boolean) evaluate(stmt.condition))
         {
-            execute(stmt.body);
+            Object completion;
+            if (block != null) {
+                if (scope == null) {
+                    scope = Frames.create(frame, block.names);
+                } else {
+                    Frames.clear(scope);
+                }
+                completion = executeBlock(block.statements, scope);
+            } else {
+                completion = execute(stmt.body);
+            }
+            if (completion == Completion.BREAK) break;
+            if (completion != Completion.NORMAL && completion != Completion.CONTINUE) return completion;
+            if (stmt.counted) {
+                countedIncrement(stmt);
+            } else if (stmt.increment != null) {
+                evaluate(stmt.increment);
+            }
+        }
+        return Completion.NORMAL;
+    }
+
+    // The induction variable of a counted loop is compared and stepped without visiting its expressions
+    private boolean countedCondition(While stmt) {
+        Logical condition = (Logical) stmt.condition;
+        Variable variable = (Variable) condition.left;
+        double value = (Double) Frames.get(frame, variable.depth, variable.slot, variable.name, globals);
+        double bound = (Double) evaluate(condition.right);
+        switch (condition.operator.type) {
+            case LESS: return value < bound;
+            case LESS_EQUAL: return value <= bound;
+            case GREATER: return value > bound;
+            default: return value >= bound;
         }
-        return null;
+    }
+
+    private void countedIncrement(While stmt) {
+        Assign increment = (Assign) stmt.increment;
+        Binary step = (Binary) increment.value;
+        double value = (Double) Frames.get(frame, increment.depth, increment.slot, increment.name, globals);
+        double amount = (Double) ((Literal) step.right).value;
+        Frames.assign(frame, increment.depth, increment.slot, increment.name,
+                step.operator.type == TokenType.PLUS ? value + amount : value - amount, globals);
     }
 
 }
\ No newline at end of file
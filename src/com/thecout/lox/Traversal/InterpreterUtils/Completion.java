@@ -0,0 +1,15 @@
+package com.thecout.lox.Traversal.InterpreterUtils;
+
+/*
+ * How a statement completed, returned by the statement executors instead of
+ * throwing. A statement returns NORMAL, or the value of the return statement
+ * it ran, which is never a Completion. Loops end on BREAK and go on with the
+ * next iteration on CONTINUE, anything else they pass on. TAIL_CALL is a
+ * return whose call the LoxFunction returning still has to make, see TailCall.
+ */
+public enum Completion {
+    NORMAL,
+    BREAK,
+    CONTINUE,
+    TAIL_CALL
+}
@@ -8,6 +8,8 @@ import java.util.Map;
 public class Environment {
     final Environment enclosing;
     private final Map<String, Object> values = new HashMap<>();
+    // Changes whenever a binding to a callable is defined, replaced or assigned
+    private int version;
 
     public Environment() {
         enclosing = null;
@@ -18,12 +20,12 @@ public class Environment {
     }
 
     public void define(String name, Object value) {
-        values.put(name, value);
+        changed(values.put(name, value), value);
     }
 
     public void assign(Token name, Object value) {
         if (values.containsKey(name.lexeme)) {
-            values.put(name.lexeme, value);
+            changed(values.put(name.lexeme, value), value);
             return;
         }
         if (enclosing != null) {
@@ -34,6 +36,18 @@ public class Environment {
                 "Undefined variable '" + name.lexeme + "'.");
     }
 
+    /*
+     * Callables read from this environment stay valid as long as the version
+     * is the same. Assigning other values, as loop counters, keeps it.
+     */
+    public int version() {
+        return version;
+    }
+
+    private void changed(Object previous, Object value) {
+        if (previous instanceof LoxCallable || value instanceof LoxCallable) version++;
+    }
+
     public Object get(Token name) {
         if (values.containsKey(name.lexeme)) {
             return values.get(name.lexeme);
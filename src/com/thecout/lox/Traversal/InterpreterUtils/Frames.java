@@ -0,0 +1,119 @@
+package com.thecout.lox.Traversal.InterpreterUtils;
+
+import com.thecout.lox.Token;
+
+import java.util.Arrays;
+
+/*
+ * Local scopes as a single Object[]: the enclosing frame, the slot names the
+ * Resolver laid out, then one entry per slot. Entering a block or a call costs
+ * one small array. Frames end in null, behind them are the globals, which stay
+ * an Environment looked up by name.
+ */
+public final class Frames {
+    private static final int ENCLOSING = 0;
+    private static final int NAMES = 1;
+    public static final int HEADER = 2;
+
+    /*
+     * Content of a slot before its declaration has run. In "{ print a; var a = 2; }"
+     * the print runs while the slot of the inner a is still empty; it is looked up
+     * by name, which passes over such slots and finds the a further out.
+     */
+    private static final Object UNDEFINED = new Object();
+
+    private Frames() {
+    }
+
+    public static Object[] create(Object[] enclosing, String[] names) {
+        Object[] frame = new Object[HEADER + names.length];
+        frame[ENCLOSING] = enclosing;
+        frame[NAMES] = names;
+        Arrays.fill(frame, HEADER, frame.length, UNDEFINED);
+        return frame;
+    }
+
+    public static Object[] enclosing(Object[] frame) {
+        return (Object[]) frame[ENCLOSING];
+    }
+
+    // Empties every slot, so a frame reused by a loop body or a tail call is like a new one
+    public static void clear(Object[] frame) {
+        Arrays.fill(frame, HEADER, frame.length, UNDEFINED);
+    }
+
+    public static void define(Object[] frame, int slot, Object value) {
+        frame[HEADER + slot] = value;
+    }
+
+    public static Object get(Object[] frame, int depth, int slot, Token name, Environment globals) {
+        Object[] target = ancestor(frame, depth);
+        Object value = target[HEADER + slot];
+        if (value != UNDEFINED) return value;
+        // not declared yet, see UNDEFINED
+        return get((Object[]) target[ENCLOSING], name, globals);
+    }
+
+    public static void assign(Object[] frame, int depth, int slot, Token name, Object value, Environment globals) {
+        Object[] target = ancestor(frame, depth);
+        if (target[HEADER + slot] != UNDEFINED) {
+            target[HEADER + slot] = value;
+        } else {
+            assign((Object[]) target[ENCLOSING], name, value, globals);
+        }
+    }
+
+    // Lookup by name through the frames and then the globals
+    public static Object get(Object[] frame, Token name, Environment globals) {
+        for (Object[] current = frame; current != null; current = (Object[]) current[ENCLOSING]) {
+            int index = indexOf(current, name.lexeme);
+            if (index >= 0) return current[index];
+        }
+        return globals.get(name);
+    }
+
+    public static void assign(Object[] frame, Token name, Object value, Environment globals) {
+        for (Object[] current = frame; current != null; current = (Object[]) current[ENCLOSING]) {
+            int index = indexOf(current, name.lexeme);
+            if (index >= 0) {
+                current[index] = value;
+                return;
+            }
+        }
+        globals.assign(name, value);
+    }
+
+    public static String toString(Object[] frame, Environment globals) {
+        StringBuilder result = new StringBuilder();
+        for (Object[] current = frame; current != null; current = (Object[]) current[ENCLOSING]) {
+            String[] names = (String[]) current[NAMES];
+            result.append('{');
+            for (int i = 0; i < names.length; i++) {
+                if (current[HEADER + i] == UNDEFINED) continue;
+                if (result.charAt(result.length() - 1) != '{') result.append(", ");
+                result.append(names[i]).append('=').append(current[HEADER + i]);
+            }
+            result.append("} -> ");
+        }
+        return result.append(globals).toString();
+    }
+
+    private static Object[] ancestor(Object[] frame, int depth) {
+        Object[] current = frame;
+        for (int i = 0; i < depth; i++) {
+            current = (Object[]) current[ENCLOSING];
+        }
+        return current;
+    }
+
+    // Index of the defined slot with this name, -1 if there is none
+    private static int indexOf(Object[] frame, String name) {
+        String[] names = (String[]) frame[NAMES];
+        for (int i = names.length - 1; i >= 0; i--) {
+            if (names[i].equals(name)) {
+                return frame[HEADER + i] != UNDEFINED ? HEADER + i : -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -3,10 +3,36 @@ package com.thecout.lox.Traversal.InterpreterUtils;
 
 import com.thecout.lox.Traversal.Interpreter;
 
+import java.util.Arrays;
 import java.util.List;
 
 public interface LoxCallable {
     int arity();
 
     Object call(Interpreter interpreter, List<Object> arguments);
-}
\ No newline at end of file
+
+    /*
+     * Entry points for calls with up to four arguments, which take the values
+     * directly instead of a list. Callables override the ones for their arity,
+     * the defaults fall back to call with a list.
+     */
+    default Object call0(Interpreter interpreter) {
+        return call(interpreter, List.of());
+    }
+
+    default Object call1(Interpreter interpreter, Object a) {
+        return call(interpreter, Arrays.asList(a));
+    }
+
+    default Object call2(Interpreter interpreter, Object a, Object b) {
+        return call(interpreter, Arrays.asList(a, b));
+    }
+
+    default Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+        return call(interpreter, Arrays.asList(a, b, c));
+    }
+
+    default Object call4(Interpreter interpreter, Object a, Object b, Object c, Object d) {
+        return call(interpreter, Arrays.asList(a, b, c, d));
+    }
+}
@@ -8,9 +8,9 @@ import java.util.List;
 
 public class LoxFunction implements LoxCallable {
     private final Function declaration;
-    private final Environment closure;
+    private final Object[] closure;
 
-    public LoxFunction(Function declaration, Environment closure) {
+    public LoxFunction(Function declaration, Object[] closure) {
         this.closure = closure;
         this.declaration = declaration;
     }
@@ -28,17 +28,72 @@ public class LoxFunction implements LoxCallable {
     @Override
     public Object call(Interpreter interpreter,
                        List<Object> arguments) {
-        Environment environment = new Environment(closure);
+        Object[] frame = Frames.create(closure, declaration.names);
         for (int i = 0; i < declaration.parameters.size(); i++) {
-            environment.define(declaration.parameters.get(i).lexeme,
-                    arguments.get(i));
+            // the Resolver puts parameter i into slot i
+            Frames.define(frame, i, arguments.get(i));
         }
+        return execute(interpreter, frame);
+    }
+
+    @Override
+    public Object call0(Interpreter interpreter) {
+        return execute(interpreter, Frames.create(closure, declaration.names));
+    }
+
+    @Override
+    public Object call1(Interpreter interpreter, Object a) {
+        Object[] frame = Frames.create(closure, declaration.names);
+        Frames.define(frame, 0, a);
+        return execute(interpreter, frame);
+    }
+
+    @Override
+    public Object call2(Interpreter interpreter, Object a, Object b) {
+        Object[] frame = Frames.create(closure, declaration.names);
+        Frames.define(frame, 0, a);
+        Frames.define(frame, 1, b);
+        return execute(interpreter, frame);
+    }
+
+    @Override
+    public Object call3(Interpreter interpreter, Object a, Object b, Object c) {
+        Object[] frame = Frames.create(closure, declaration.names);
+        Frames.define(frame, 0, a);
+        Frames.define(frame, 1, b);
+        Frames.define(frame, 2, c);
+        return execute(interpreter, frame);
+    }
+
+    @Override
+    public Object call4(Interpreter interpreter, Object a, Object b, Object c, Object d) {
+        Object[] frame = Frames.create(closure, declaration.names);
+        Frames.define(frame, 0, a);
+        Frames.define(frame, 1, b);
+        Frames.define(frame, 2, c);
+        Frames.define(frame, 3, d);
+        return execute(interpreter, frame);
+    }
 
-        try {
-            interpreter.executeBlock(declaration.body, environment);
-        } catch (LoxReturn returnValue) {
-            return returnValue.value;
+    // Runs the body, then every call in tail position it ends with, in constant Java stack
+    private Object execute(Interpreter interpreter, Object[] frame) {
+        LoxFunction function = this;
+        while (true) {
+            Object completion = interpreter.executeBlock(function.declaration.body, frame);
+            if (completion != Completion.TAIL_CALL) {
+                // anything but a Completion is the value of a return
+                return completion instanceof Completion ? null : completion;
+            }
+            TailCall call = interpreter.tailCall;
+            LoxFunction next = call.function;
+            if (next == function && !function.declaration.closures) {
+                // a recursive call, no closure can have kept the frame
+                Frames.clear(frame);
+            } else {
+                frame = Frames.create(next.closure, next.declaration.names);
+            }
+            call.moveArguments(frame);
+            function = next;
         }
-        return null;
     }
 }
\ No newline at end of file
@@ -9,4 +9,12 @@ public class RuntimeError extends RuntimeException {
         super(message);
         this.token = token;
     }
+
+    // The same error with the token moved to another line
+    public RuntimeError at(int line) {
+        if (token == null || token.line == line) return this;
+        RuntimeError error = new RuntimeError(new Token(token.type, token.lexeme, token.literal, line, token.symbol), getMessage());
+        error.setStackTrace(getStackTrace());
+        return error;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.thecout.lox.Traversal.InterpreterUtils;
+
+import java.util.Arrays;
+
+/*
+ * Call in tail position that the Interpreter leaves to the LoxFunction it
+ * returns from, so it runs in that function's loop instead of on top of it.
+ * Argument values are pushed on a stack shared by the whole Interpreter, as
+ * the evaluation of one argument may make tail calls of its own.
+ */
+public final class TailCall {
+    private Object[] values = new Object[16];
+    private int top;
+    // The pending call, its arguments are the values from start to top
+    LoxFunction function;
+    private int start;
+
+    public int top() {
+        return top;
+    }
+
+    public void push(Object value) {
+        if (top == values.length) values = Arrays.copyOf(values, top * 2);
+        values[top++] = value;
+    }
+
+    public void pending(LoxFunction function, int start) {
+        this.function = function;
+        this.start = start;
+    }
+
+    // Defines the arguments in the parameter slots of the frame and drops them from the stack
+    void moveArguments(Object[] frame) {
+        for (int i = start; i < top; i++) {
+            Frames.define(frame, i - start, values[i]);
+            values[i] = null;
+        }
+        top = start;
+        function = null;
+    }
+}
@@ -0,0 +1,211 @@
+package com.thecout.lox.Traversal;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Rewrites a tree before it is interpreted. Folds operators on literals exactly
+ * the way the Interpreter would evaluate them, removes dead if and while branches
+ * and statements without effect, and merges blocks that declare nothing into the
+ * enclosing statement list, since only declarations need the extra scope.
+ * Operators the Interpreter rejects at runtime are left alone.
+ */
+public class Optimizer implements ExprVisitor<Expr>, StmtVisitor<Stmt> {
+
+    public List<Stmt> optimize(List<Stmt> statements) {
+        List<Stmt> result = new ArrayList<>(statements.size());
+        for (Stmt statement : statements) {
+            Stmt optimized = statement(statement);
+            if (optimized == null) continue;
+            if (optimized instanceof Block && !declares(((Block) optimized).statements)) {
+                result.addAll(((Block) optimized).statements);
+            } else {
+                result.add(optimized);
+            }
+        }
+        return result;
+    }
+
+    public Expr optimize(Expr expr) {
+        return expr == null ? null : expr.accept(this);
+    }
+
+    // null when the statement has no effect
+    private Stmt statement(Stmt stmt) {
+        return stmt == null ? null : stmt.accept(this);
+    }
+
+    // Statement in a position that takes exactly one, like a loop body or a branch
+    private Stmt single(Stmt stmt) {
+        return unwrap(statement(stmt));
+    }
+
+    private static Stmt unwrap(Stmt optimized) {
+        if (optimized == null) return new Block(List.of());
+        if (optimized instanceof Block) {
+            List<Stmt> statements = ((Block) optimized).statements;
+            if (statements.size() == 1 && !declares(statements)) return statements.get(0);
+        }
+        return optimized;
+    }
+
+    private static boolean declares(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            if (statement instanceof Var || statement instanceof Function) return true;
+        }
+        return false;
+    }
+
+    private static boolean isNumber(Expr expr) {
+        return expr instanceof Literal && ((Literal) expr).value instanceof Double;
+    }
+
+    private static double number(Expr expr) {
+        return (Double) ((Literal) expr).value;
+    }
+
+    @Override
+    public Expr visitAssignExpr(Assign expr) {
+        return new Assign(expr.name, optimize(expr.value));
+    }
+
+    @Override
+    public Expr visitBinaryExpr(Binary expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+        if (isNumber(left) && isNumber(right)) {
+            switch (expr.operator.type) {
+                case STAR: return new Literal(number(left) * number(right));
+                case SLASH: return new Literal(number(left) / number(right));
+                case PLUS: return new Literal(number(left) + number(right));
+                case MINUS: return new Literal(number(left) - number(right));
+                default: break;
+            }
+        }
+        return new Binary(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitCallExpr(Call expr) {
+        List<Expr> arguments = new ArrayList<>(expr.arguments.size());
+        for (Expr argument : expr.arguments) {
+            arguments.add(optimize(argument));
+        }
+        return new Call(optimize(expr.callee), arguments);
+    }
+
+    @Override
+    public Expr visitGroupingExpr(Grouping expr) {
+        Expr expression = optimize(expr.expression);
+        if (expression instanceof Literal) return expression;
+        return new Grouping(expression);
+    }
+
+    @Override
+    public Expr visitLiteralExpr(Literal expr) {
+        return expr;
+    }
+
+    @Override
+    public Expr visitLogicalExpr(Logical expr) {
+        Expr left = optimize(expr.left);
+        Expr right = optimize(expr.right);
+        if (left instanceof Literal && right instanceof Literal) {
+            switch (expr.operator.type) {
+                case EQUAL_EQUAL: return new Literal(Objects.equals(((Literal) left).value, ((Literal) right).value));
+                default: break;
+            }
+        }
+        if (isNumber(left) && isNumber(right)) {
+            switch (expr.operator.type) {
+                case LESS_EQUAL: return new Literal(number(left) <= number(right));
+                case GREATER_EQUAL: return new Literal(number(left) >= number(right));
+                case LESS: return new Literal(number(left) < number(right));
+                case GREATER: return new Literal(number(left) > number(right));
+                default: break;
+            }
+        }
+        return new Logical(left, expr.operator, right);
+    }
+
+    @Override
+    public Expr visitUnaryExpr(Unary expr) {
+        Expr right = optimize(expr.right);
+        if (right instanceof Literal) {
+            Object value = ((Literal) right).value;
+            switch (expr.operator.type) {
+                case MINUS:
+                    if (value instanceof Double) return new Literal(-(Double) value);
+                    break;
+                case BANG:
+                    if (value instanceof Boolean) return new Literal(!(Boolean) value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new Unary(expr.operator, right);
+    }
+
+    @Override
+    public Expr visitVariableExpr(Variable expr) {
+        // a copy, the Resolver annotates the nodes of the optimized tree
+        return new Variable(expr.name);
+    }
+
+    @Override
+    public Stmt visitBlockStmt(Block stmt) {
+        List<Stmt> statements = optimize(stmt.statements);
+        return statements.isEmpty() ? null : new Block(statements);
+    }
+
+    @Override
+    public Stmt visitExpressionStmt(Expression stmt) {
+        Expr expression = optimize(stmt.expression);
+        if (expression == null || expression instanceof Literal) return null;
+        return new Expression(expression);
+    }
+
+    @Override
+    public Stmt visitFunctionStmt(Function stmt) {
+        return new Function(stmt.name, stmt.parameters, optimize(stmt.body));
+    }
+
+    @Override
+    public Stmt visitIfStmt(If stmt) {
+        Expr condition = optimize(stmt.condition);
+        if (condition instanceof Literal && ((Literal) condition).value instanceof Boolean) {
+            Stmt taken = (Boolean) ((Literal) condition).value ? stmt.thenBranch : stmt.elseBranch;
+            return statement(taken);
+        }
+        Stmt elseBranch = statement(stmt.elseBranch);
+        return new If(condition, single(stmt.thenBranch), elseBranch == null ? null : unwrap(elseBranch));
+    }
+
+    @Override
+    public Stmt visitPrintStmt(Print stmt) {
+        return new Print(optimize(stmt.expression));
+    }
+
+    @Override
+    public Stmt visitReturnStmt(Return stmt) {
+        return new Return(optimize(stmt.value));
+    }
+
+    @Override
+    public Stmt visitVarStmt(Var stmt) {
+        return new Var(stmt.name, optimize(stmt.initializer));
+    }
+
+    @Override
+    public Stmt visitWhileStmt(While stmt) {
+        Expr condition = optimize(stmt.condition);
+        if (condition instanceof Literal && Boolean.FALSE.equals(((Literal) condition).value)) return null;
+        Expr increment = optimize(stmt.increment);
+        return new While(condition, single(stmt.body), increment instanceof Literal ? null : increment);
+    }
+}
@@ -0,0 +1,283 @@
+package com.thecout.lox.Traversal;
+
+import com.thecout.lox.Parser.Expr.*;
+import com.thecout.lox.Parser.Stmts.*;
+import com.thecout.lox.Token;
+import com.thecout.lox.TokenType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Binds every variable reference to the scope that declares it. Blocks and
+ * function calls get one scope each, exactly where the Interpreter creates a
+ * frame, and every variable of a scope a slot. References are annotated
+ * with the distance to the declaring scope and the slot, declarations with
+ * their slot, so the Interpreter can skip the lookup by name.
+ *
+ * References resolve to the nearest declaration before them, like the lookup at
+ * runtime. A reference that only finds a declaration further down an enclosing
+ * scope, as a closure calling a function declared after it, stays DYNAMIC and is
+ * looked up by name. Everything else is GLOBAL.
+ *
+ * A block that declares nothing gets no scope and runs in the frame around it.
+ * Scopes a function is declared in are captured, their frames may outlive the
+ * block or call, the others can be reused, see Interpreter.visitWhileStmt.
+ */
+public class Resolver implements ExprVisitor<Void>, StmtVisitor<Void> {
+    // Depths that are not a distance; DYNAMIC is also the depth of references nobody resolved
+    public static final int DYNAMIC = -1;
+    public static final int GLOBAL = -2;
+
+    private static class Scope {
+        final Map<String, Integer> slots = new HashMap<>();
+        final List<String> names = new ArrayList<>();
+        // every name declared anywhere in the scope, also below the statement being resolved
+        final Set<String> declared = new HashSet<>();
+        // a function declared in this scope or a nested one can keep the frame
+        boolean captured;
+
+        int declare(String name) {
+            return slots.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+
+        // Parameters get a slot each, even repeated ones, so parameter i is always slot i
+        void parameter(String name) {
+            declared.add(name);
+            names.add(name);
+            slots.put(name, names.size() - 1);
+        }
+
+        String[] names() {
+            return names.toArray(new String[0]);
+        }
+    }
+
+    private final Deque<Scope> scopes = new ArrayDeque<>();
+    private final Deque<Function> functions = new ArrayDeque<>();
+
+    public List<Stmt> resolve(List<Stmt> statements) {
+        for (Stmt statement : statements) {
+            resolve(statement);
+        }
+        return statements;
+    }
+
+    private void resolve(Stmt stmt) {
+        if (stmt != null) stmt.accept(this);
+    }
+
+    private void resolve(Expr expr) {
+        if (expr != null) expr.accept(this);
+    }
+
+    private Scope beginScope(List<Stmt> statements) {
+        Scope scope = new Scope();
+        for (Stmt statement : statements) {
+            collectDeclarations(statement, scope.declared);
+        }
+        scopes.push(scope);
+        return scope;
+    }
+
+    // Declarations that end up in the current scope, the ones of nested blocks belong to those
+    private static void collectDeclarations(Stmt stmt, Set<String> declared) {
+        if (stmt instanceof Var && ((Var) stmt).name != null) {
+            declared.add(((Var) stmt).name.lexeme);
+        } else if (stmt instanceof Function && ((Function) stmt).name != null) {
+            declared.add(((Function) stmt).name.lexeme);
+        } else if (stmt instanceof If) {
+            collectDeclarations(((If) stmt).thenBranch, declared);
+            collectDeclarations(((If) stmt).elseBranch, declared);
+        } else if (stmt instanceof While) {
+            collectDeclarations(((While) stmt).body, declared);
+        }
+    }
+
+    // Slot of the declaration in the current scope, or -1 at the top level where globals are defined by name
+    private int declare(Token name) {
+        if (scopes.isEmpty() || name == null) return -1;
+        return scopes.peek().declare(name.lexeme);
+    }
+
+    // Depth and slot of the nearest declaration, {GLOBAL, -1} or {DYNAMIC, -1} if there is none yet
+    private int[] lookup(Token name) {
+        int depth = 0;
+        boolean later = false;
+        for (Scope scope : scopes) {
+            Integer slot = scope.slots.get(name.lexeme);
+            if (slot != null) return new int[]{depth, slot};
+            later |= scope.declared.contains(name.lexeme);
+            depth++;
+        }
+        return new int[]{later ? DYNAMIC : GLOBAL, -1};
+    }
+
+    @Override
+    public Void visitAssignExpr(Assign expr) {
+        resolve(expr.value);
+        int[] binding = lookup(expr.name);
+        expr.depth = binding[0];
+        expr.slot = binding[1];
+        return null;
+    }
+
+    @Override
+    public Void visitBinaryExpr(Binary expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpr(Call expr) {
+        resolve(expr.callee);
+        for (Expr argument : expr.arguments) {
+            resolve(argument);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpr(Grouping expr) {
+        resolve(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpr(Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpr(Logical expr) {
+        resolve(expr.left);
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpr(Unary expr) {
+        resolve(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpr(Variable expr) {
+        int[] binding = lookup(expr.name);
+        expr.depth = binding[0];
+        expr.slot = binding[1];
+        return null;
+    }
+
+    @Override
+    public Void visitBlockStmt(Block stmt) {
+        Scope scope = beginScope(stmt.statements);
+        if (scope.declared.isEmpty()) {
+            scopes.pop();
+            resolve(stmt.statements);
+            stmt.names = null;
+            return null;
+        }
+        resolve(stmt.statements);
+        scopes.pop();
+        stmt.names = scope.names();
+        stmt.captured = scope.captured;
+        return null;
+    }
+
+    @Override
+    public Void visitExpressionStmt(Expression stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionStmt(Function stmt) {
+        // declared before the body is resolved, so the function can call itself
+        stmt.slot = declare(stmt.name);
+        for (Scope enclosing : scopes) {
+            enclosing.captured = true;
+        }
+        functions.push(stmt);
+        Scope scope = beginScope(stmt.body);
+        for (Token parameter : stmt.parameters) {
+            scope.parameter(parameter.lexeme);
+        }
+        resolve(stmt.body);
+        scopes.pop();
+        functions.pop();
+        stmt.names = scope.names();
+        stmt.closures = scope.captured;
+        return null;
+    }
+
+    @Override
+    public Void visitIfStmt(If stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.thenBranch);
+        resolve(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitPrintStmt(Print stmt) {
+        resolve(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStmt(Return stmt) {
+        if (stmt.value instanceof Call && !functions.isEmpty()) ((Call) stmt.value).tail = true;
+        resolve(stmt.value);
+        return null;
+    }
+
+    @Override
+    public Void visitVarStmt(Var stmt) {
+        // the initializer still sees the variables of the same name from outside
+        resolve(stmt.initializer);
+        stmt.slot = declare(stmt.name);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStmt(While stmt) {
+        resolve(stmt.condition);
+        resolve(stmt.body);
+        resolve(stmt.increment);
+        stmt.counted = counted(stmt);
+        return null;
+    }
+
+    // "v < bound; v = v + step" or with -, <=, > and >= for a local v and a number step
+    private static boolean counted(While stmt) {
+        if (!(stmt.condition instanceof Logical) || !(stmt.increment instanceof Assign)) return false;
+        Logical condition = (Logical) stmt.condition;
+        Assign increment = (Assign) stmt.increment;
+        switch (condition.operator.type) {
+            case LESS: case LESS_EQUAL: case GREATER: case GREATER_EQUAL: break;
+            default: return false;
+        }
+        if (!(condition.left instanceof Variable) || !(increment.value instanceof Binary)) return false;
+        Variable variable = (Variable) condition.left;
+        Binary step = (Binary) increment.value;
+        if (step.operator.type != TokenType.PLUS && step.operator.type != TokenType.MINUS) return false;
+        if (!(step.right instanceof Literal) || !(((Literal) step.right).value instanceof Double)) return false;
+        return variable.depth >= 0 && sameSlot(variable, increment.depth, increment.slot)
+                && step.left instanceof Variable && sameSlot((Variable) step.left, variable.depth, variable.slot);
+    }
+
+    private static boolean sameSlot(Variable variable, int depth, int slot) {
+        return variable.depth == depth && variable.slot == slot;
+    }
+}
@@ -1,8 +1,11 @@
 package com.thecout.lox;
 
+import com.thecout.lox.Bytecode.Scheduler;
 import com.thecout.lox.Parser.Parser;
 import com.thecout.lox.Parser.Stmts.Stmt;
+import com.thecout.lox.Traversal.ExecutionMode;
 import com.thecout.lox.Traversal.Interpreter;
+import com.thecout.lox.Traversal.Optimizer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -76,6 +79,287 @@ public class InterpretTest {
             print printSum(2,5);
             
             """;
+    static final String optimizetest = """
+            fun scale(a) {
+                if (2 * 3 > 5) {
+                    {
+                        a = a * (10 - 8);
+                    }
+                } else {
+                    print 0;
+                }
+                if (false) print 1;
+                while (false) print 2;
+                return a;
+            }
+            for (var i = 0; i < 2;) {
+                i = i + 1;
+                print scale(-(1 + 2));
+            }
+            """;
+    @Test
+    void optimizeTest() {
+        List<Stmt> statements = new Parser(new Scanner(optimizetest).scan()).parse();
+        List<Stmt> optimized = new Optimizer().optimize(statements);
+        assertEquals("(Function a (= a (* a 2.0))\n(return a) )", optimized.get(0).print());
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("-6.0\n-6.0", outContent.toString().trim().replace("\r", ""), "Optimized program should print -6 twice");
+        outContent.reset();
+    }
+    static final String scopetest = """
+            var a = 1;
+            var c = 7;
+            fun outer() {
+                fun show() {
+                    return later();
+                }
+                fun later() {
+                    return a;
+                }
+                var a = 5;
+                return show();
+            }
+            print outer();
+            {
+                var b = 2;
+                {
+                    print b;
+                    var b = 3;
+                    print b;
+                    print c;
+                    c = 8;
+                    var c = 4;
+                }
+            }
+            print c;
+            """;
+    @Test
+    void scopeTest() {
+        List<Stmt> statements = new Parser(new Scanner(scopetest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("5.0\n2.0\n3.0\n7.0\n8.0", outContent.toString().trim().replace("\r", ""),
+                "Resolved variables should see the same bindings as the lookup by name");
+        outContent.reset();
+    }
+    static final String inlinecachetest = """
+            fun one() { return 1; }
+            fun two() { return 2; }
+            var f = one;
+            var i = 0;
+            while (i < 3) {
+                print f();
+                f = two;
+                i = i + 1;
+            }
+            """;
+    @Test
+    void inlineCacheTest() {
+        List<Stmt> statements = new Parser(new Scanner(inlinecachetest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("1.0\n2.0\n2.0", outContent.toString().trim().replace("\r", ""),
+                "A call site should see the function a global was reassigned to");
+        outContent.reset();
+    }
+    static final String calltest = """
+            fun fib(n) {
+                if (n < 2) return n;
+                return fib(n - 1) + fib(n - 2);
+            }
+            fun sum(a, b, c, d, e) {
+                return a + b + c + d + e;
+            }
+            print fib(10);
+            print sum(1, fib(2), 3, 4, 5);
+            """;
+    @Test
+    void callTest() {
+        List<Stmt> statements = new Parser(new Scanner(calltest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("55.0\n14.0", outContent.toString().trim().replace("\r", ""),
+                "Arguments should be evaluated before the call");
+        outContent.reset();
+    }
+    static final String returntest = """
+            fun find(n) {
+                var i = 0;
+                while (true) {
+                    {
+                        if (i > n) return i;
+                    }
+                    i = i + 1;
+                }
+            }
+            print find(3);
+            print find(find(1));
+            """;
+    @Test
+    void returnTest() {
+        List<Stmt> statements = new Parser(new Scanner(returntest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("4.0\n3.0", outContent.toString().trim().replace("\r", ""),
+                "A return should leave nested blocks and loops");
+        outContent.reset();
+    }
+    static final String tailcalltest = """
+            fun sum(n, total) {
+                if (n < 1) return total;
+                return sum(n - 1, total + n);
+            }
+            fun even(n) {
+                if (n < 1) return true;
+                return odd(n - 1);
+            }
+            fun odd(n) {
+                if (n < 1) return false;
+                return even(n - 1);
+            }
+            fun keep(n, last) {
+                fun get() {
+                    return n;
+                }
+                if (n < 1) return last();
+                return keep(n - 1, get);
+            }
+            print sum(100000, 0);
+            print even(100001);
+            print keep(3, nil);
+            """;
+    @Test
+    void tailCallTest() {
+        List<Stmt> statements = new Parser(new Scanner(tailcalltest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("5.00005E9\nfalse\n1.0", outContent.toString().trim().replace("\r", ""),
+                "Calls in tail position should not grow the stack");
+        outContent.reset();
+    }
+    static final String coroutinetest = """
+            fun count() {
+                var i = 0;
+                while (i < 2) {
+                    yield(i);
+                    i = i + 1;
+                }
+                return "done";
+            }
+            var next = coroutine(count);
+            print next();
+            print next();
+            print next();
+            fun deep(n) {
+                if (n < 1) return 0;
+                return deep(n - 1) + 1;
+            }
+            print deep(100000);
+            """;
+    @Test
+    void coroutineTest() {
+        List<Stmt> statements = new Parser(new Scanner(coroutinetest).scan()).parse();
+        Interpreter interpreter = new Interpreter(ExecutionMode.BYTECODE);
+        interpreter.interpret(statements);
+        assertEquals("0.0\n1.0\ndone\n100000.0", outContent.toString().trim().replace("\r", ""),
+                "A coroutine should go on after its last yield and calls should not use the Java stack");
+        outContent.reset();
+    }
+    @Test
+    void schedulerTest() {
+        Scheduler scheduler = new Scheduler();
+        for (String name : List.of("a", "b")) {
+            scheduler.spawn(new Parser(new Scanner("""
+                    var i = 0;
+                    while (i < 2) {
+                        print "%s";
+                        yield(i);
+                        i = i + 1;
+                    }
+                    """.formatted(name)).scan()).parse());
+        }
+        scheduler.spawn(new Parser(new Scanner("yield(nil); print 1 + nil;").scan()).parse());
+        scheduler.run();
+        assertEquals("a\nb\na\nb", outContent.toString().trim().replace("\r", ""),
+                "Scripts should take turns at every yield and a failing script should not stop the others");
+        outContent.reset();
+    }
+    static final String loopframetest = """
+            var x = "outer";
+            for (var i = 0; i < 2; i = i + 1) {
+                print x;
+                var x = "inner";
+            }
+            var f;
+            var g;
+            for (var j = 0; j < 2; j = j + 1) {
+                var k = j;
+                fun get() {
+                    return k;
+                }
+                if (j < 1) f = get; else g = get;
+            }
+            print f();
+            print g();
+            {
+                var m = 0;
+                for (; m < 10; m = m + 1) m = m + 4;
+                print m;
+                for (var n = 2; n > 0; n = n - 1) print n;
+            }
+            """;
+    @Test
+    void loopFrameTest() {
+        List<Stmt> statements = new Parser(new Scanner(loopframetest).scan()).parse();
+        Interpreter interpreter = new Interpreter();
+        interpreter.interpret(statements);
+        assertEquals("outer\nouter\n0.0\n1.0\n10.0\n2.0\n1.0", outContent.toString().trim().replace("\r", ""),
+                "Every iteration should start with a fresh scope and closures should keep their own");
+        outContent.reset();
+    }
+    @Test
+    void bytecodeConstantsTest() {
+        String source = "var x = 0;\n" + "x = x + 1;\n".repeat(70000) + "print x;";
+        new Interpreter(ExecutionMode.BYTECODE).interpret(new Parser(new Scanner(source).scan()).parse());
+        assertEquals("70000.0", outContent.toString().trim(), "Names and literals should take one constant each");
+        outContent.reset();
+    }
+    static final String equalitytest = """
+            { var a = 1; print a == a; }
+            fun f(x) { return x == x; }
+            print f(1);
+            fun g(n) { var t = n; return t == n; }
+            print g(2);
+            print 1 == 1;
+            var s = "a";
+            print s == "a";
+            print 1 == 2;
+            print nil == false;
+            """;
+    @Test
+    void equalityTest() {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            new Interpreter(mode).interpret(new Parser(new Scanner(equalitytest).scan()).parse());
+            assertEquals("true\ntrue\ntrue\ntrue\ntrue\nfalse\nfalse", outContent.toString().trim().replace("\r", ""),
+                    mode + " should compare numbers and strings by value");
+            outContent.reset();
+        }
+    }
+    @Test
+    void backendTest() {
+        for (String source : List.of(arithmetic1, arithmetic2, conditionaltest1, looptest, looptest2, optimizetest, scopetest,
+                inlinecachetest, calltest, returntest, loopframetest, equalitytest)) {
+            new Interpreter().interpret(new Parser(new Scanner(source).scan()).parse());
+            String expected = outContent.toString();
+            outContent.reset();
+            for (ExecutionMode mode : ExecutionMode.values()) {
+                new Interpreter(mode).interpret(new Parser(new Scanner(source).scan()).parse());
+                assertEquals(expected, outContent.toString(), mode + " should print what the Interpreter prints");
+                outContent.reset();
+            }
+        }
+    }
     @Test
     void loopTest2() {
         Scanner scanner = new Scanner(looptest2);
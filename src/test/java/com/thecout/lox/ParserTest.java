@@ -1,14 +1,33 @@
 package com.thecout.lox;
 
+import com.thecout.lox.Batch.BatchCompiler;
+import com.thecout.lox.Batch.BatchResult;
+import com.thecout.lox.Batch.FileResult;
+import com.thecout.lox.Cache.CompiledProgram;
+import com.thecout.lox.Cache.ProgramCache;
 import com.thecout.lox.Parser.*;
+import com.thecout.lox.Parser.Flat.FlatAst;
+import com.thecout.lox.Parser.Flat.FlatAstFormat;
+import com.thecout.lox.Parser.Flat.NodeKind;
+import com.thecout.lox.Parser.Expr.Binary;
+import com.thecout.lox.Parser.Expr.Expr;
+import com.thecout.lox.Parser.Expr.Unary;
 import com.thecout.lox.Parser.Stmts.Function;
 import com.thecout.lox.Parser.Stmts.Print;
 import com.thecout.lox.Parser.Stmts.Stmt;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParserTest {
@@ -31,4 +50,246 @@ public class ParserTest {
         assertEquals(((Function) statements.get(0)).parameters.get(0).type, TokenType.IDENTIFIER, "Expected first function parameter to be identifier");
 
     }
+
+    @Test
+    void parseStreamTest() {
+        List<Stmt> expected = new Parser(new Scanner(program).scan()).parse();
+        assertSameStatements(expected, new Parser(new Scanner(program).stream()).parse());
+        assertSameStatements(expected, new Parser(new Scanner(program).scanToBuffer().stream()).parse());
+    }
+
+    private static void assertSameStatements(List<Stmt> expected, List<Stmt> actual) {
+        assertEquals(expected.size(), actual.size(), "Expected " + expected.size() + " statements, got " + actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).print(), actual.get(i).print(), "Statement " + i + " differs");
+        }
+    }
+
+    @Test
+    void grammarMatchesMarkdown() throws IOException {
+        List<String[]> rows = Files.readAllLines(Path.of("JLox_Grammar.md")).stream()
+                .skip(2)
+                .map(line -> line.split("\\|"))
+                .filter(cells -> cells.length >= 4)
+                .map(cells -> new String[]{cells[1].trim(), normalize(cells[3].replace("&#x7c;", "|").replace("\\*", "*"))})
+                .collect(Collectors.toList());
+        assertEquals(Grammar.RULES.length, rows.size(), "Expected every rule of the grammar");
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i)[0], Grammar.RULES[i][0], "Rule " + i + " differs");
+            assertEquals(rows.get(i)[1], normalize(Grammar.RULES[i][1]), "Body of " + rows.get(i)[0] + " differs");
+        }
+    }
+
+    @Test
+    void firstAndFollowSets() {
+        EnumSet<TokenType> expression = EnumSet.of(TokenType.BANG, TokenType.MINUS, TokenType.TRUE, TokenType.FALSE,
+                TokenType.NIL, TokenType.NUMBER, TokenType.STRING, TokenType.IDENTIFIER, TokenType.LEFT_PAREN);
+        assertEquals(expression, Grammar.first("expression"));
+        assertEquals(EnumSet.of(TokenType.FUN), Grammar.first("funDecl"));
+        assertTrue(Grammar.nullable("parameters") == false && Grammar.nullable("program") == false);
+        assertTrue(Grammar.follow("expression").containsAll(EnumSet.of(TokenType.SEMICOLON, TokenType.RIGHT_PAREN, TokenType.COMMA)));
+        assertTrue(Grammar.follow("declaration").containsAll(EnumSet.of(TokenType.EOF, TokenType.RIGHT_BRACE)));
+    }
+
+    @Test
+    void ll1MatchesRecursiveDescent() {
+        String[] programs = {program, InterpretTest.program, InterpretTest.arithmetic2, InterpretTest.conditionaltest1,
+                InterpretTest.looptest, InterpretTest.looptest2};
+        for (String source : programs) {
+            List<Stmt> expected = new Parser(new Scanner(source).scan(), ParserMode.RECURSIVE_DESCENT).parse();
+            assertSameStatements(expected, new Parser(new Scanner(source).scan(), ParserMode.LL1).parse());
+        }
+    }
+
+    @Test
+    void ll1Declarations() {
+        List<Stmt> statements = new Parser(new Scanner("""
+                fun f() {
+                    var x;
+                    var y = -x * 2;
+                    return;
+                }
+                for (;;) print false;
+                """).scan()).parse();
+        assertEquals(2, statements.size(), "Expected a function and a loop");
+        Function function = (Function) statements.get(0);
+        assertEquals(3, function.body.size(), "Expected declarations inside the function body");
+        assertEquals("(= y (* -x 2.0))", function.body.get(1).print());
+        assertEquals("(return null)", function.body.get(2).print());
+        assertEquals("((while true (print false)))", statements.get(1).print());
+    }
+
+    @Test
+    void prattMatchesLL1() {
+        String[] programs = {program, InterpretTest.program, InterpretTest.arithmetic2, InterpretTest.conditionaltest1,
+                InterpretTest.looptest, InterpretTest.looptest2, """
+                a = b = -c * (d + e) / f(g, h = 1 <= 2, !i) - j;
+                print x == y or !z and 1 > 2 - -3;
+                (f)(a != b);
+                """};
+        for (String source : programs) {
+            List<Stmt> expected = new Parser(new Scanner(source).scan(), ParserMode.LL1).parse();
+            assertSameStatements(expected, new Parser(new Scanner(source).scan(), ParserMode.PRATT).parse());
+        }
+        assertEquals(0, new Parser(new Scanner("a + b = c;").scan(), ParserMode.PRATT).parse().size(), "Expected an invalid assignment target");
+    }
+
+    @Test
+    void prattParsesDeepNesting() {
+        int depth = 100000;
+        String source = "print " + "(1 + -".repeat(depth) + "1" + ")".repeat(depth) + ";";
+        List<Stmt> statements = new Parser(new Scanner(source).scan(), ParserMode.PRATT).parse();
+        Expr expr = ((Print) statements.get(0)).expression;
+        int nesting = 0;
+        while (expr instanceof Binary) {
+            expr = ((Unary) ((Binary) expr).right).right;
+            nesting++;
+        }
+        assertEquals(depth, nesting, "Expected every group to be parsed");
+    }
+
+    @Test
+    void reportsEveryError() {
+        String source = """
+                var = 1;
+                print 1 +;
+                fun f() {
+                    var x = );
+                    print x;
+                }
+                if (true print 2;
+                print 3;
+                """;
+        for (ParserMode mode : new ParserMode[]{ParserMode.LL1, ParserMode.PRATT}) {
+            Parser parser = new Parser(new Scanner(source).scan(), mode);
+            List<Stmt> statements = parser.parse();
+            List<String> errors = parser.getErrors().stream().map(ParserError::toString).collect(Collectors.toList());
+            assertEquals(List.of("0 Expect variable name.", "1 Expect expression.", "3 Expect expression.",
+                    "6 Expect ')' after if condition."), errors, "Expected every error in " + mode);
+            assertEquals(2, statements.size(), "Expected the function and the print after the errors");
+            assertEquals(1, ((Function) statements.get(0)).body.size(), "Expected the function to recover inside its body");
+        }
+
+        Parser parser = new Parser(new Scanner("fun f() { print 1 + ; print 2; } print 3;").scan(), ParserMode.RECURSIVE_DESCENT);
+        List<Stmt> statements = parser.parse();
+        assertEquals(List.of("0 Expected 'unary operator'"),
+                parser.getErrors().stream().map(ParserError::toString).collect(Collectors.toList()));
+        assertEquals(2, statements.size(), "Expected the function and the print after the error");
+        assertEquals(1, ((Function) statements.get(0)).body.size(), "Expected the function to recover inside its body");
+    }
+
+    @Test
+    void grammarOfEachMode() {
+        // the language of the Grammar, the default since LL1 replaced RECURSIVE_DESCENT
+        for (ParserMode mode : new ParserMode[]{ParserMode.LL1, ParserMode.PRATT}) {
+            assertEquals(List.of(), errors("{ var c = 1; fun g() {} print c; }", mode), "Expected declarations in blocks in " + mode);
+            assertEquals(List.of(), errors("f(a, b); fun f(a, b) {}", mode));
+            assertEquals(List.of("0 Expect expression."), errors("f(a,);", mode), "Expected no trailing ',' in " + mode);
+            assertEquals(List.of("0 Expect parameter name."), errors("fun f(a,) {}", mode));
+            assertEquals(List.of("0 Invalid assignment target."), errors("(a) = 3;", mode));
+            assertEquals(List.of("0 Invalid assignment target."), errors("a = (b) = 3;", mode));
+            assertEquals(List.of("0 Expect expression."), errors("if (b < 1) var c = 4;", mode));
+        }
+
+        assertEquals(List.of("0 Expected 'unary operator'"), errors("{ var c = 1; }", ParserMode.RECURSIVE_DESCENT));
+        assertEquals(List.of(), errors("f(a,);", ParserMode.RECURSIVE_DESCENT));
+        assertEquals(List.of(), errors("fun f(a,) {}", ParserMode.RECURSIVE_DESCENT));
+        assertEquals(1, errors("(a) = 3;", ParserMode.RECURSIVE_DESCENT).size());
+        assertEquals(1, errors("if (b < 1) var c = 4;", ParserMode.RECURSIVE_DESCENT).size());
+    }
+
+    private static List<String> errors(String source, ParserMode mode) {
+        Parser parser = new Parser(new Scanner(source).scan(), mode);
+        parser.parse();
+        return parser.getErrors().stream().map(ParserError::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    void compileBatch(@TempDir Path directory) throws IOException {
+        Files.createDirectories(directory.resolve("lib"));
+        Files.writeString(directory.resolve("main.lox"), program);
+        Files.writeString(directory.resolve("lib/loop.lox"), InterpretTest.looptest2);
+        Files.writeString(directory.resolve("lib/broken.lox"), "print 1 +;\nvar = 2;\nprint 3;\n");
+        Files.writeString(directory.resolve("lib/lexical.lox"), "var a = 1;@\nprint a;\n");
+        Files.writeString(directory.resolve("notes.txt"), "not lox");
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BatchResult result;
+        try {
+            result = new BatchCompiler(pool, ParserMode.LL1).compile(List.of(directory));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(List.of(directory.resolve("lib/broken.lox"), directory.resolve("lib/lexical.lox"), directory.resolve("lib/loop.lox"), directory.resolve("main.lox")),
+                result.files.stream().map(file -> file.file).collect(Collectors.toList()), "Expected the .lox files in path order");
+        FileResult broken = result.files.get(0);
+        assertEquals(List.of("0 Expect expression.", "1 Expect variable name."),
+                broken.errors.stream().map(ParserError::toString).collect(Collectors.toList()));
+        assertEquals(1, broken.statements.size(), "Expected the statement after the errors");
+        FileResult lexical = result.files.get(1);
+        assertEquals(List.of("0 No matching token found for lexem @."),
+                lexical.errors.stream().map(ParserError::toString).collect(Collectors.toList()));
+        assertFalse(lexical.succeeded(), "Expected a lexical error to fail the file");
+        assertEquals(2, lexical.statements.size());
+        assertSameStatements(new Parser(new Scanner(program).scan()).parse(), result.files.get(3).statements);
+        assertEquals(3, result.errorCount());
+        assertTrue(result.files.get(2).succeeded() && !result.succeeded());
+
+        FileResult missing = new BatchCompiler().compile(directory.resolve("missing.lox"));
+        assertTrue(missing.failure != null && missing.statements.isEmpty(), "Expected the read failure to be reported");
+    }
+
+    @Test
+    void flatAstRoundTrip() {
+        for (String source : new String[]{program, InterpretTest.program, InterpretTest.conditionaltest1, InterpretTest.looptest2}) {
+            List<Stmt> statements = new Parser(new Scanner(source).scan(), ParserMode.RECURSIVE_DESCENT).parse();
+            FlatAst ast = FlatAst.of(statements);
+            assertEquals(statements.size(), ast.rootCount());
+            assertSameStatements(statements, ast.toStatements());
+        }
+
+        FlatAst ast = FlatAst.of(new Parser(new Scanner("fun f(a, b) { return a + b * 2; } print f(1, 2);").scan()).parse());
+        int function = ast.root(0);
+        assertEquals(NodeKind.FUNCTION, ast.kind(function));
+        assertEquals("b", ast.parameter(function, 1).lexeme);
+        int sum = ast.value(ast.statement(function, 0));
+        assertEquals("+", ast.token(sum).lexeme);
+        assertEquals(NodeKind.BINARY, ast.kind(ast.right(sum)));
+        int call = ast.expression(ast.root(1));
+        assertEquals(2.0, ast.literal(ast.argument(call, 1)));
+        assertTrue(ast.left(sum) < sum && ast.right(sum) < sum, "Expected children before their parents");
+    }
+
+    @Test
+    void programCache(@TempDir Path directory) throws IOException {
+        ProgramCache cache = new ProgramCache(directory.resolve("cache"));
+        CompiledProgram compiled = cache.load(InterpretTest.program);
+        CompiledProgram cached = cache.load(InterpretTest.program);
+        assertTrue(!compiled.fromCache && cached.fromCache, "Expected the second load to hit the cache");
+        assertSameStatements(compiled.ast.toStatements(), cached.ast.toStatements());
+        assertEquals("printSum", cached.ast.token(cached.ast.root(0)).lexeme);
+        assertSameStatements(compiled.ast.toStatements(), FlatAstFormat.decode(FlatAstFormat.encode(cached.ast)).toStatements());
+
+        Path file = directory.resolve("loop.lox");
+        Files.writeString(file, InterpretTest.looptest2);
+        assertTrue(!cache.load(file).fromCache && cache.load(file).fromCache);
+        assertSameStatements(new Parser(new Scanner(InterpretTest.looptest2).scan()).parse(), cache.load(file).ast.toStatements());
+
+        assertEquals(1, cache.load("print ;").errors.size());
+        assertTrue(!cache.load("print ;").fromCache, "Expected programs with errors not to be cached");
+        assertEquals(1, cache.load("print 1;@").errors.size());
+        assertTrue(!cache.load("print 1;@").fromCache, "Expected programs with lexical errors not to be cached");
+
+        try (var entries = Files.list(directory.resolve("cache"))) {
+            for (Path entry : entries.collect(Collectors.toList())) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+        assertTrue(!cache.load(InterpretTest.program).fromCache && cache.load(InterpretTest.program).fromCache,
+                "Expected a damaged entry to be compiled again");
+    }
+
+    private static String normalize(String body) {
+        return body.replaceAll("\\s+", "").replaceAll(";$", "");
+    }
 }
@@ -1,9 +1,17 @@
 package com.thecout.lox;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,4 +62,134 @@ public class ScannerTest {
         assertEquals(TokenType.STRING, actual.get(1).type, "Expected " + TokenType.STRING + ", got " + actual.get(1).type);
         assertEquals("Hello World", actual.get(1).literal, "Expected Hello World got " + actual.get(1).literal);
     }
+
+    @Test
+    void tableScannerMatchesRegexScanner() {
+        String[] programs = {
+                program,
+                "12.45",
+                "print \"Hello World\";",
+                """
+                fun printSum(a,b,c,d) {
+                    if(b>a) {
+                        return b+a;
+                    } else {
+                        return c+d;
+                    }
+                }
+                // comment line
+                for(var i = 0; a <= d; i = i+1){ a = a*1/2 - -3; }
+                print a != b == !c >= d; // trailing comment
+
+
+                """,
+                ""
+        };
+        for (String source : programs) {
+            List<Token> expected = new Scanner(source, ScannerMode.REGEX).scan();
+            List<Token> actual = new Scanner(source, ScannerMode.TABLE).scan();
+            assertSameTokens(expected, actual);
+        }
+    }
+
+    @Test
+    void scanFile(@TempDir Path directory) throws IOException {
+        String source = program + "print \"Gr\u00fc\u00dfe\"; // done\n";
+        Path file = directory.resolve("program.lox");
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+        List<Token> expected = new Scanner(source).scan();
+        List<Token> actual = Scanner.ofFile(file).scan();
+        assertSameTokens(expected, actual);
+    }
+
+    @Test
+    void scanToBuffer() {
+        List<Token> expected = new Scanner(program).scan();
+        TokenBuffer actual = new Scanner(program).scanToBuffer();
+        assertSameTokens(expected, IntStream.range(0, actual.size()).mapToObj(actual::token).toList());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).type, actual.type(i), "Type of token " + i + " differs");
+            assertEquals(expected.get(i).line, actual.line(i), "Line of token " + i + " differs");
+            assertEquals(expected.get(i).symbol, actual.symbol(i), "Symbol of token " + i + " differs");
+        }
+        TokenStream stream = actual.stream();
+        for (int i = 0; i < expected.size() - 1; i++) {
+            stream.advance();
+            assertEquals(expected.get(i).type, stream.previousType(), "Type of consumed token " + i + " differs");
+            assertEquals(expected.get(i).literal, stream.previousLiteral(), "Literal of consumed token " + i + " differs");
+        }
+    }
+
+    @Test
+    void internIdentifiers() {
+        Scanner scanner = new Scanner(program);
+        List<Token> actual = scanner.scan();
+        Token declared = actual.get(3);
+        Token used = actual.get(9);
+        assertEquals("a", declared.lexeme, "Expected parameter a, got " + declared.lexeme);
+        assertEquals(declared.symbol, used.symbol, "Expected both occurrences of a to share a symbol");
+        assertSame(declared.lexeme, used.lexeme, "Expected both occurrences of a to share the lexeme");
+        assertEquals(3, scanner.getSymbols().size(), "Expected symbols printSum, a and b");
+        assertEquals(-1, actual.get(0).symbol, "Expected no symbol for keyword fun");
+        for (String keyword : new String[]{"and", "else", "false", "fun", "for", "if", "nil", "or", "print", "return", "true", "var", "while"}) {
+            TokenType type = new Scanner(keyword).scan().get(0).type;
+            assertEquals(keyword.toUpperCase(), type.name(), "Expected keyword " + keyword + ", got " + type);
+        }
+    }
+
+    @Test
+    void scanParallel() {
+        String source = (program + "print \"Hello World\"; // comment\n\n").repeat(5000);
+        List<Token> expected = new Scanner(source).scan();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Token> actual;
+        try {
+            actual = new Scanner(source).scanParallel(pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertSameTokens(expected, actual);
+        assertEquals(expected.stream().map(token -> token.symbol).toList(), actual.stream().map(token -> token.symbol).toList(),
+                "Expected the symbols of a sequential scan");
+    }
+
+    @Test
+    void rescanEdits() {
+        IncrementalScanner incremental = new IncrementalScanner(program);
+        TextEdit[] edits = {
+                new TextEdit(program.indexOf("a+b"), program.indexOf("a+b") + 3, "a * b - c"),
+                new TextEdit(0, 0, "var x = 1;\nvar y = \"two\";\n"),
+                new TextEdit(program.length() - 3, program.length(), ";\n// done\n\n"),
+                new TextEdit(4, 30, ""),
+                new TextEdit(0, 0, "\n\n"),
+                new TextEdit(0, Integer.MAX_VALUE, ""),
+                new TextEdit(0, 0, program)
+        };
+        for (TextEdit edit : edits) {
+            int start = Math.min(edit.start, incremental.getSource().length());
+            int end = Math.min(edit.end, incremental.getSource().length());
+            List<Token> actual = incremental.apply(new TextEdit(start, end, edit.replacement));
+            List<Token> expected = new Scanner(incremental.getSource()).scan();
+            assertSameTokens(expected, actual);
+        }
+
+        // Edits all over the source, so both gaps move back and forth
+        Random random = new Random(7);
+        String[] replacements = {"var a = 1;\n", "print \"x\";", "\n", "fun f(b) {\n return b;\n}\n", "// note\n", "x", ""};
+        for (int n = 0; n < 500; n++) {
+            int length = incremental.getSource().length();
+            int start = random.nextInt(length + 1);
+            int end = Math.min(length, start + random.nextInt(12));
+            incremental.apply(new TextEdit(start, end, replacements[random.nextInt(replacements.length)]));
+            assertSameTokens(new Scanner(incremental.getSource()).scan(), incremental.getTokens());
+        }
+    }
+
+    private static void assertSameTokens(List<Token> expected, List<Token> actual) {
+        assertEquals(expected.size(), actual.size(), "Expected " + expected.size() + " tokens, got " + actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString(), "Token " + i + " differs");
+            assertEquals(expected.get(i).line, actual.get(i).line, "Line of token " + i + " differs");
+        }
+    }
 }